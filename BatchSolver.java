@@ -0,0 +1,344 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Solver;
+
+/*
+ *  Batch solver
+ *  Solves many residents and pioneer instances in one JVM, several at a time, and writes a summary of the results.
+ *
+ *  Usage: BatchSolver <directory or manifest> [-workers n] [-time limit] [-nodes n] [-summary file]
+ *  A directory is solved file by file (every *.txt in it); a manifest is a text file listing one instance per line,
+ *  relative to the manifest, where blank lines and lines starting with # are skipped. Files with "pioneer" in their
+ *  name are Pioneer instances, all others residents instances.
+ *
+ *  Instances are handed to a fixed pool of workers, one per core unless -workers says otherwise. Each resolution
+ *  stops at the time limit (e.g. 30s, 2m; default 60s) or node limit (default none), whichever comes first, and then
+ *  reports the best solution found so far, with the bound known on its objective and the gap to it. The summary is
+ *  tab separated, one line per instance in the order given, to the -summary file or standard output.
+ */
+
+public class BatchSolver {
+
+	public enum Status {
+		OPTIMAL,			// best solution found and proved
+		FEASIBLE,			// a limit was reached after finding a solution
+		INFEASIBLE,			// proved to have no solution
+		UNKNOWN,			// a limit was reached before finding any solution
+		ERROR				// the instance could not be read or solved
+	}
+
+	/*
+	 *  What happened to one instance.
+	 */
+	public static class Outcome {
+		private final Path file;
+		private final String kind;
+		private Status status = Status.ERROR;
+		private int objective;
+		private int bound = -1;				// lower bound for residents, upper bound for pioneer; -1 if unknown
+		private long buildMillis;
+		private long solveMillis;
+		private long nodes;
+		private long solutions;				// found by the search, and before it (e.g. the DP incumbent of pioneer)
+		private String error = "";
+		private SolutionSink.Printable best;		// the best solution found, or null
+
+		Outcome(Path file, boolean pioneer) {
+			this.file = file;
+			this.kind = pioneer ? "pioneer" : "residents";
+		}
+
+		public Path getFile() {
+			return file;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public int getObjective() {
+			return objective;
+		}
+
+		public SolutionSink.Printable getBest() {
+			return best;
+		}
+
+		/*
+		 *  How far the objective may be from the optimum, as a fraction of the larger of it and the bound:
+		 *  0 when proved optimal, - when there is no solution or no bound.
+		 */
+		String gap() {
+			if (status == Status.OPTIMAL) {
+				return "0";
+			}
+			if (solutions == 0 || bound < 0) {
+				return "-";
+			}
+			int larger = Math.max(objective, bound);
+			return String.format(Locale.ROOT, "%.4f", larger == 0 ? 0 : (double) Math.abs(objective - bound) / larger);
+		}
+
+		String toLine() {
+			return file + "\t" + kind + "\t" + status + "\t" + (solutions > 0 ? String.valueOf(objective) : "-") + "\t"
+					+ (bound >= 0 ? String.valueOf(bound) : "-") + "\t" + gap() + "\t"
+					+ buildMillis + "\t" + solveMillis + "\t" + nodes + "\t" + solutions + "\t" + error;
+		}
+
+		/*
+		 *  The same as toLine, as the fields of a JSON object, followed by the fields of the best solution if any.
+		 */
+		void appendJson(StringBuilder out) {
+			out.append("\"instance\":").append(SolutionSink.quote(file.toString()))
+				.append(",\"kind\":\"").append(kind)
+				.append("\",\"status\":\"").append(status).append('"');
+			if (solutions > 0) {
+				out.append(",\"objective\":").append(objective);
+			}
+			if (bound >= 0) {
+				out.append(",\"bound\":").append(bound);
+			}
+			if (!gap().equals("-")) {
+				out.append(",\"gap\":").append(gap());
+			}
+			out.append(",\"buildMs\":").append(buildMillis)
+				.append(",\"solveMs\":").append(solveMillis)
+				.append(",\"nodes\":").append(nodes)
+				.append(",\"solutions\":").append(solutions);
+			if (!error.isEmpty()) {
+				out.append(",\"error\":").append(SolutionSink.quote(error));
+			}
+			if (best != null) {
+				out.append(',');
+				best.appendJson(out);
+			}
+		}
+	}
+
+	public static final String USAGE = "Usage: BatchSolver <directory or manifest> [-workers n] [-time limit] [-nodes n] [-summary file]";
+	public static final String HEADER = "instance\tkind\tstatus\tobjective\tbound\tgap\tbuild_ms\tsolve_ms\tnodes\tsolutions\terror";
+
+	private final int numWorkers;
+	private final String timeLimit;
+	private final long nodeLimit;			// 0 for none
+
+	public BatchSolver(int numWorkers, String timeLimit, long nodeLimit) {
+		this.numWorkers = numWorkers;
+		this.timeLimit = timeLimit;
+		this.nodeLimit = nodeLimit;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == 0) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		int numWorkers = Runtime.getRuntime().availableProcessors();
+		String timeLimit = "60s";
+		long nodeLimit = 0;
+		String summary = null;
+		for (int i = 1; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				System.err.println("No value after " + args[i] + ". " + USAGE);
+				System.exit(2);
+			}
+			try {
+				switch (args[i]) {
+				case "-workers":
+					numWorkers = Integer.parseInt(args[i + 1]);
+					break;
+				case "-time":
+					timeLimit = args[i + 1];
+					break;
+				case "-nodes":
+					nodeLimit = Long.parseLong(args[i + 1]);
+					break;
+				case "-summary":
+					summary = args[i + 1];
+					break;
+				default:
+					System.err.println("Unknown option " + args[i] + ". " + USAGE);
+					System.exit(2);
+				}
+			}
+			catch (NumberFormatException e) {
+				System.err.println("Not a number after " + args[i] + ": " + args[i + 1] + ". " + USAGE);
+				System.exit(2);
+			}
+		}
+		List<Outcome> outcomes = new BatchSolver(numWorkers, timeLimit, nodeLimit).solveAll(listInstances(Paths.get(args[0])));
+		if (summary == null) {
+			Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);	// flushed, not closed: System.out stays usable
+			writeSummary(outcomes, out);
+			out.flush();
+		}
+		else {
+			try (Writer out = Files.newBufferedWriter(Paths.get(summary), StandardCharsets.UTF_8)) {
+				writeSummary(outcomes, out);
+			}
+		}
+	}
+
+	private static void writeSummary(List<Outcome> outcomes, Writer out) throws IOException {
+		out.write(HEADER + "\n");
+		for (Outcome outcome : outcomes) {
+			out.write(outcome.toLine() + "\n");
+		}
+	}
+
+	/*
+	 *  The instance files of a directory, or listed in a manifest.
+	 */
+	public static List<Path> listInstances(Path source) throws IOException {
+		if (Files.isDirectory(source)) {
+			try (Stream<Path> files = Files.list(source)) {
+				return files.filter(file -> file.getFileName().toString().endsWith(".txt")).sorted().collect(Collectors.toList());
+			}
+		}
+		Path base = source.toAbsolutePath().getParent();
+		List<Path> files = new ArrayList<>();
+		for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith("#")) {
+				files.add(base.resolve(line));
+			}
+		}
+		return files;
+	}
+
+	/*
+	 *  Solves every file on the worker pool, returning the outcomes in the order of the files.
+	 */
+	public List<Outcome> solveAll(List<Path> files) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, numWorkers));
+		try {
+			List<Future<Outcome>> futures = new ArrayList<>();
+			for (Path file : files) {
+				futures.add(pool.submit(() -> solve(file)));
+			}
+			List<Outcome> outcomes = new ArrayList<>();
+			for (Future<Outcome> future : futures) {
+				try {
+					outcomes.add(future.get());
+				}
+				catch (ExecutionException e) { 	// solve() catches everything, so should not happen
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+			return outcomes;
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/*
+	 *  Solves one file within the limits. Never throws: failures are reported in the outcome.
+	 */
+	public Outcome solve(Path file) {
+		return solve(file, isPioneer(file));
+	}
+
+	/*
+	 *  The same, for a file whose kind is known whatever its name.
+	 */
+	public Outcome solve(Path file, boolean pioneer) {
+		Outcome outcome = new Outcome(file, pioneer);
+		try {
+			if (pioneer) {
+				solvePioneer(file, outcome);
+			}
+			else {
+				solveResidents(file, outcome);
+			}
+		}
+		catch (Exception | StackOverflowError e) {
+			outcome.status = Status.ERROR;
+			outcome.error = e.toString().replace('\t', ' ').replace('\n', ' ');
+		}
+		return outcome;
+	}
+
+	private void solveResidents(Path file, Outcome outcome) throws IOException {
+		long start = System.nanoTime();
+		ResidentsPresolve presolve = ResidentsPresolve.reduce(ResidentsInstance.read(new ResidentsReader(file.toString())));
+		if (presolve.isInfeasible()) {
+			outcome.buildMillis = (System.nanoTime() - start) / 1_000_000;
+			outcome.status = Status.INFEASIBLE;
+			return;
+		}
+		ResidentsModel residentsModel = ResidentsModel.build(presolve.getReduced(), SearchStrategy.DOM_OVER_W_DEG);
+		outcome.buildMillis = (System.nanoTime() - start) / 1_000_000;
+		outcome.bound = residentsModel.getLowerBound();
+		Solver solver = residentsModel.getModel().getSolver();
+		search(solver, outcome, () -> ResidentsSolution.of(residentsModel));
+	}
+
+	private void solvePioneer(Path file, Outcome outcome) throws IOException {
+		long start = System.nanoTime();
+		PioneerPresolve presolve = PioneerPresolve.reduce(PioneerInstance.read(new PioneerData(file.toString())));
+		PioneerInstance instance = presolve.getReduced();
+		PioneerSolution relaxed = PioneerKnapsackDP.solve(instance);
+		PioneerSolution incumbent = PioneerKnapsackDP.repair(instance, relaxed.getExperiments());
+		outcome.bound = relaxed.getScientificValue();
+		if (incumbent.getScientificValue() == relaxed.getScientificValue()) { 	// optimal without search
+			outcome.buildMillis = (System.nanoTime() - start) / 1_000_000;
+			outcome.status = Status.OPTIMAL;
+			outcome.objective = incumbent.getScientificValue();
+			outcome.solutions = 1;
+			outcome.best = presolve.mapBack(incumbent);
+			return;
+		}
+		outcome.objective = incumbent.getScientificValue(); 	// known feasible, whatever the search gets to
+		outcome.solutions = 1;
+		outcome.best = presolve.mapBack(incumbent);
+		PioneerModel pioneerModel = PioneerModel.build(instance, SearchStrategy.DEFAULT);
+		pioneerModel.warmStart(incumbent, relaxed.getScientificValue());
+		outcome.buildMillis = (System.nanoTime() - start) / 1_000_000;
+		search(pioneerModel.getModel().getSolver(), outcome, () -> presolve.mapBack(PioneerSolution.of(pioneerModel)));
+	}
+
+	private void search(Solver solver, Outcome outcome, Supplier<SolutionSink.Printable> solution) {
+		solver.limitTime(timeLimit);
+		if (nodeLimit > 0) {
+			solver.limitNode(nodeLimit);
+		}
+		long start = System.nanoTime();
+		while (solver.solve()) {
+			outcome.best = solution.get();
+			outcome.objective = outcome.best.getObjective();
+		}
+		outcome.solveMillis = (System.nanoTime() - start) / 1_000_000;
+		outcome.nodes = solver.getNodeCount();
+		outcome.solutions += solver.getSolutionCount();
+		boolean complete = !solver.isStopCriterionMet();
+		if (outcome.best != null) {
+			outcome.status = complete ? Status.OPTIMAL : Status.FEASIBLE;
+		}
+		else {
+			outcome.status = complete ? Status.INFEASIBLE : Status.UNKNOWN;
+		}
+	}
+
+	private static boolean isPioneer(Path file) {
+		return file.getFileName().toString().contains("pioneer");
+	}
+}
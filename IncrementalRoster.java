@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.variables.IntVar;
+
+/*
+ *  Incremental roster
+ *  Keeps a built residents model alive between small changes to the roster, and re-solves it from the previous
+ *  schedule instead of from scratch.
+ *
+ *  Changes are made by posting and unposting constraints on the same model:
+ *  	- setUnavailable: a resident cannot (or can again) work a shift,
+ *  	- setMinStaff: the minimum staff of a shift goes up or down,
+ *  	- addQualificationNeeded: a resident now needs one more qualification.
+ *  Each re-solve hints the previous shiftsAssigned to the solver, so the first schedule tried is the old one with
+ *  as few changes as possible, and seeds the objective from the previous totalNumberOfShifts:
+ *  	- if every change since only took options away and the previous schedule was optimal, the old total is a
+ *  	  lower bound, and reaching it again ends the search at once;
+ *  	- if the old schedule still meets every unavailability, minimum staff and qualification added since, it is
+ *  	  still valid and the old total an upper bound (always the case when every change since only gave options).
+ *  A solve that finds no schedule forgets the previous one, which was only valid under the constraints of its time.
+ *  A resident whose availability or qualifications change is no longer interchangeable with the others, so the
+ *  symmetry breaking constraint of its class, if any, is dropped.
+ */
+
+public class IncrementalRoster {
+	private final ResidentsInstance instance;
+	private final ResidentsModel residentsModel;
+	private final Solver solver;
+	private final int[] minStaffForShift;
+	private final Map<Integer, Constraint> unavailable = new HashMap<>();	// by resident * numShifts + shift
+	private final List<Constraint> seeds = new ArrayList<>();				// bounds from the previous solve
+	private final List<int[]> neededSince = new ArrayList<>();				// {resident, qualification} added
+	private ResidentsSolution previous;				// the last schedule found, null after a solve that found none
+	private boolean previousOptimal;
+	private boolean proved;							// the last solve ran to completion
+	private boolean tightened;						// options were taken away since the last solve
+	private boolean relaxed;						// options were given since the last solve
+	private boolean hinted;							// the solver holds hints from an earlier solve
+	private String timeLimit;
+
+	public IncrementalRoster(ResidentsInstance instance) {
+		this.instance = instance;
+		this.residentsModel = ResidentsModel.build(instance, SearchStrategy.DOM_OVER_W_DEG);
+		this.solver = residentsModel.getModel().getSolver();
+		this.minStaffForShift = instance.getMinStaffForShift().clone();
+	}
+
+	/*
+	 *  Caps every following solve, e.g. "10s"; by default they run to optimality.
+	 */
+	public void setTimeLimit(String timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/*
+	 *  Solves the roster as it stands, returning the best schedule found, or null if there is none.
+	 */
+	public ResidentsSolution solve() {
+		solver.reset();
+		if (hinted) {
+			solver.removeHints();
+			hinted = false;
+		}
+		solver.removeAllStopCriteria();
+		residentsModel.getModel().unpost(seeds.toArray(new Constraint[0]));
+		seeds.clear();
+		IntVar totalNumberOfShifts = residentsModel.getTotalNumberOfShifts();
+		if (previous != null) {
+			IntVar[][] shiftsAssigned = residentsModel.getShiftsAssigned();
+			for (int resident = 0; resident < shiftsAssigned.length; resident++) {
+				for (int shift = 0; shift < shiftsAssigned[resident].length; shift++) {
+					solver.addHint(shiftsAssigned[resident][shift], previous.getShiftsAssigned()[resident][shift]);
+				}
+			}
+			hinted = true;
+			if (tightened && !relaxed && previousOptimal) {
+				seeds.add(residentsModel.getModel().arithm(totalNumberOfShifts, ">=", previous.getTotalNumberOfShifts()));
+			}
+			else if (isStillValid(previous)) {
+				seeds.add(residentsModel.getModel().arithm(totalNumberOfShifts, "<=", previous.getTotalNumberOfShifts()));
+			}
+			for (Constraint seed : seeds) {
+				seed.post();
+			}
+		}
+		if (timeLimit != null) {
+			solver.limitTime(timeLimit);
+		}
+		ResidentsSolution best = null;
+		while (solver.solve()) {
+			best = ResidentsSolution.of(residentsModel);
+		}
+		proved = !solver.isStopCriterionMet();
+		previous = best;
+		previousOptimal = best != null && proved;
+		tightened = false;
+		relaxed = false;
+		return best;
+	}
+
+	/*
+	 *  Whether the last solve proved its schedule optimal (or proved there is none).
+	 */
+	public boolean isOptimal() {
+		return proved;
+	}
+
+	/*
+	 *  Whether the schedule meets the unavailabilities, minimum staff and qualifications as they stand now.
+	 */
+	private boolean isStillValid(ResidentsSolution schedule) {
+		int[][] shiftsAssigned = schedule.getShiftsAssigned();
+		int numShifts = instance.getNumShifts();
+		for (int cell : unavailable.keySet()) {
+			if (shiftsAssigned[cell / numShifts][cell % numShifts] == 1) {
+				return false;
+			}
+		}
+		for (int shift = 0; shift < numShifts; shift++) {
+			int staff = 0;
+			for (int[] row : shiftsAssigned) {
+				staff += row[shift];
+			}
+			if (staff < minStaffForShift[shift]) {
+				return false;
+			}
+		}
+		for (int[] needed : neededSince) {
+			boolean attended = false;
+			for (int shift : instance.getQualificationsOffered().row(needed[1])) {
+				attended |= shiftsAssigned[needed[0]][shift] == 1;
+			}
+			if (!attended) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void setUnavailable(int resident, int shift, boolean isUnavailable) {
+		int cell = resident * instance.getNumShifts() + shift;
+		if (isUnavailable == unavailable.containsKey(cell)) {
+			return;
+		}
+		solver.reset();
+		if (isUnavailable) {
+			Constraint off = residentsModel.getModel().arithm(residentsModel.getShiftsAssigned()[resident][shift], "=", 0);
+			off.post();
+			unavailable.put(cell, off);
+			tightened = true;
+		}
+		else {
+			residentsModel.getModel().unpost(unavailable.remove(cell));
+			relaxed = true;
+		}
+		residentsModel.dropSymmetry(resident);
+	}
+
+	public void setMinStaff(int shift, int minStaff) {
+		if (minStaff == minStaffForShift[shift]) {
+			return;
+		}
+		solver.reset();
+		if (minStaff > minStaffForShift[shift]) {
+			tightened = true;
+		}
+		else {
+			relaxed = true;
+		}
+		minStaffForShift[shift] = minStaff;
+		residentsModel.setMinStaff(shift, minStaff);
+	}
+
+	/*
+	 *  The resident must now attend a tutorial of the qualification, i.e. work one of the shifts it is offered on.
+	 */
+	public void addQualificationNeeded(int resident, int qualification) {
+		int[] qualificationTimes = instance.getQualificationsOffered().row(qualification);
+		if (qualificationTimes.length == 0) {
+			return; 										// never offered, nothing to attend (as when building the model)
+		}
+		solver.reset();
+		residentsModel.getModel().addClausesBoolOrArrayEqualTrue(residentsModel.getCells(resident, qualificationTimes));
+		neededSince.add(new int[] { resident, qualification });
+		tightened = true;
+		residentsModel.dropSymmetry(resident);
+	}
+
+	public ResidentsModel getResidentsModel() {
+		return residentsModel;
+	}
+}
@@ -0,0 +1,108 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ *  Instance scanner
+ *  Reads the whitespace separated integers of a data file straight out of a memory-mapped view of it.
+ *
+ *  There is no Scanner, no String per token and no copy of the file on the heap: the operating system pages the
+ *  file in as it is read. Files larger than one mapping are read through a window that moves along the file.
+ */
+
+public class InstanceScanner implements Closeable {
+	private static final long WINDOW = 1L << 26;		// 64 MiB mapped at a time
+
+	private final String file;
+	private final FileChannel channel;
+	private final long size;
+	private long windowStart;
+	private MappedByteBuffer buffer;
+
+	public InstanceScanner(String file) throws IOException {
+		this(Paths.get(file));
+	}
+
+	public InstanceScanner(Path path) throws IOException {
+		this.file = path.toString();
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		map(0);
+	}
+
+	/*
+	 *  The next integer in the file, whatever whitespace (spaces, tabs, new lines) comes before it.
+	 */
+	public int nextInt() throws IOException {
+		int c = read();
+		while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+			c = read();
+		}
+		if (c < 0) {
+			throw new EOFException(file + ": expected a number but reached the end of the file");
+		}
+		boolean negative = c == '-';
+		if (negative) {
+			c = read();
+		}
+		if (c < '0' || c > '9') {
+			throw new IOException(file + ": expected a number at byte " + (position() - 1) + " but found '" + (char) c + "'");
+		}
+		long value = 0;
+		while (c >= '0' && c <= '9') {
+			value = value * 10 + (c - '0');
+			if (value > Integer.MAX_VALUE) {
+				throw new IOException(file + ": number too large at byte " + (position() - 1));
+			}
+			c = read();
+		}
+		if (c >= 0 && c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+			throw new IOException(file + ": unexpected '" + (char) c + "' at byte " + (position() - 1));
+		}
+		return negative ? (int) -value : (int) value;
+	}
+
+	/*
+	 *  The next integer, which must be 0 or 1: for the qualification matrices.
+	 */
+	public boolean nextBit() throws IOException {
+		int value = nextInt();
+		if (value != 0 && value != 1) {
+			throw new IOException(file + ": expected 0 or 1 but found " + value);
+		}
+		return value == 1;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private int read() throws IOException {
+		if (!buffer.hasRemaining()) {
+			if (windowStart + buffer.limit() >= size) {
+				return -1;
+			}
+			map(windowStart + buffer.limit());
+		}
+		return buffer.get() & 0xff;
+	}
+
+	private long position() {
+		return windowStart + buffer.position();
+	}
+
+	private void map(long start) throws IOException {
+		windowStart = start;
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+	}
+}
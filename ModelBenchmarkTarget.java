@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+
+/*
+ *  Model benchmark target
+ *  The work measured by bench.ModelBenchmark, for one data file, scale factor and search strategy.
+ *
+ *  JMH refuses benchmarks in the default package, and classes in a named package cannot see the ones in here,
+ *  so the benchmark only talks to this class through JDK types: get() builds a fresh model, and the returned
+ *  Callable solves it to optimality (or until the time limit) and returns the objective value found.
+ */
+
+public class ModelBenchmarkTarget implements Supplier<Callable<Object>> {
+	private final ResidentsInstance residents;		// set for residents*.txt files
+	private final PioneerInstance pioneer;			// set for pioneer*.txt files
+	private final SearchStrategy strategy;
+	private final String timeLimit;
+
+	private ModelBenchmarkTarget(ResidentsInstance residents, PioneerInstance pioneer, SearchStrategy strategy, String timeLimit) {
+		this.residents = residents;
+		this.pioneer = pioneer;
+		this.strategy = strategy;
+		this.timeLimit = timeLimit;
+	}
+
+	/*
+	 *  Reads src/data/<name>.txt, scales it by factor (1 keeps the file as it is), and targets it with the named strategy.
+	 */
+	public static Supplier<Callable<Object>> create(String name, int factor, String strategy, String timeLimit) throws IOException {
+		String file = "src/data/" + name + ".txt";
+		SearchStrategy searchStrategy = SearchStrategy.valueOf(strategy);
+		if (name.startsWith("pioneer")) {
+			PioneerInstance instance = SyntheticInstances.scale(PioneerInstance.read(new PioneerData(file)), factor);
+			return new ModelBenchmarkTarget(null, instance, searchStrategy, timeLimit);
+		}
+		ResidentsInstance instance = SyntheticInstances.scale(ResidentsInstance.read(new ResidentsReader(file)), factor);
+		return new ModelBenchmarkTarget(instance, null, searchStrategy, timeLimit);
+	}
+
+	@Override
+	public Callable<Object> get() {
+		Model model = residents != null
+				? ResidentsModel.build(residents, strategy).getModel()
+				: PioneerModel.build(pioneer, strategy).getModel();
+		return () -> solve(model);
+	}
+
+	private Object solve(Model model) {
+		Solver solver = model.getSolver();
+		solver.limitTime(timeLimit);
+		while (solver.solve()) {
+			// Note - last solution generated is the optimal one
+		}
+		return solver.getObjectiveManager().getBestSolutionValue();
+	}
+}
@@ -1,9 +1,7 @@
 import java.io.IOException;
+import java.util.Arrays;
 
-import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
-import org.chocosolver.solver.constraints.Constraint;
-import org.chocosolver.solver.variables.IntVar;
 
 /*
  *  Pioneer Landing pathFinder
@@ -13,7 +11,7 @@ import org.chocosolver.solver.variables.IntVar;
  *  to maximise the total sum of value from the individual experiments.
  *  
  *  
- *  uses the global constraint "knapsack"
+ *  uses the global constraint "scalar" for the total time and value (see PioneerModel)
  *  
  *  Data is read in from file, where the file must contain a series of n lines(ti   vi   mi), 
  *  where ti is the time required for an experiment of type i,
@@ -33,66 +31,67 @@ import org.chocosolver.solver.variables.IntVar;
 
 
 public class Pioneer116365436{
+	/*
+	 *  Usage: Pioneer116365436 [-front] [-all] [-json] [-metrics file]
+	 *  With -front, every choice of experiments that no other beats in both total time and value is printed, from
+	 *  the shortest to the longest, as each one is found (see PioneerPareto): the best for every budget of hours.
+	 *  Only the optimal solution is printed unless -all is given; -json prints JSON lines (see SolutionSink).
+	 *  -metrics records propagation and search metrics of the search, if there is one, into the file (see SolverMetrics);
+	 *  it is rejected with -front.
+	 */
 	public static void main(String[] args) throws IOException {
-		Model model = new Model("The Pioneer lander Problem");
 		//PioneerData data = new PioneerData("src/data/pioneer0.txt");// For testing on pioneer0.txt	
 		//PioneerData data = new PioneerData("src/data/pioneer1.txt");// For testing on pioneer1.txt	
 		PioneerData data = new PioneerData("src/data/pioneer2.txt");// For testing on pioneer2.txt	
-		int numTypes = data.getNumTypes(); //the number of experiment types
-		int totalHours = data.getTotalHours(); // The total time available for experiments
-		int numBefores = data.getNumBefores();// The total number of restrictions
-		int[] hours = data.getHours(); // The hours for the experiments
-		int[] values = data.getValues(); // The scientific values for the experiments
-		int[] total =   data.getTotals(); // The total amount of times it is possible to carry out experiment
-		int[][] befores =   data.getBefores(); // The experiments for which there is a relationship
-		int maxValue = data.getMaxValues(); // The total value for all experiments.
-		
-		IntVar[] experiments = new IntVar[numTypes];
-		for (int type = 0; type<numTypes; type++) {
-			experiments[type] = model.intVar("experiments"+type, 0,  total[type]); // how many of each experiment type
+		SolutionSink sink = SolutionSink.fromArguments(args);
+		boolean text = sink.getFormat() == SolutionSink.Format.TEXT;
+		if (Arrays.asList(args).contains("-metrics") && Arrays.asList(args).contains("-front")) {
+			System.err.println("-metrics only records the search for the optimum, not -front. Usage: Pioneer116365436 [-front] [-all] [-json] [-metrics file]");
+			System.exit(2);
 		}
 		
-		// Creating variables
-		IntVar totalTime = model.intVar("total time", 0, totalHours);    // The total time for selected experiments
-		IntVar scientificValue = model.intVar("scientific value", 0, maxValue); //The total scientific value of selected items
+		// Types that cannot or need not be taken are removed first, and solutions mapped back (see PioneerPresolve)
+		PioneerPresolve presolve = PioneerPresolve.reduce(PioneerInstance.read(data));
+		PioneerInstance instance = presolve.getReduced();
 		
-		// Modelling the problem using a 'knapsack' constraint using the scientific value as "weight"
-		model.knapsack(experiments, totalTime, scientificValue, hours, values).post();
-		Solver solver = model.getSolver(); // solving the problem
+		if (Arrays.asList(args).contains("-front")) {
+			SolutionSink frontSink = SolutionSink.toStandardOutput(SolutionSink.Mode.EVERY_SOLUTION, sink.getFormat());
+			PioneerPareto front = new PioneerPareto(instance);
+			front.run(point -> frontSink.accept(presolve.mapBack(point)));
+			frontSink.close();
+			if (text) {
+				System.out.println(front.getNumPoints() + " points on the front, " + front.getNumSearches() + " searches.");
+			}
+			return;
+		}
 		
-		// Note - Using the default search strategy	
-
-		for (int i = 0; i<numBefores; i++) { // Iterate through all the restrictions on pairs of experiments
-			// Such constraint states that if v0 takes a value equal to 0 then the domain of the second element of the pair should 
-			// be reduced to the domain of the first element. 
-			// Hence, there should not be more experiments of the second type than the first type.
-			Constraint c1 = model.arithm(experiments[befores[i][1]], "<=", experiments[befores[i][0]]);
-			IntVar v0 = model.intVar("v0", 0);
-			Constraint c2 = model.arithm(v0, "=", 0);
-			model.ifThen(c2, c1);	      	 
-		}	
+		// The knapsack on its own is solved by dynamic programming (see PioneerKnapsackDP).
+		// Without befores that is the optimal solution; with them it bounds the value and gives a first solution.
+		PioneerSolution relaxed = PioneerKnapsackDP.solve(instance);
+		PioneerSolution incumbent = PioneerKnapsackDP.repair(instance, relaxed.getExperiments());
+		if (incumbent.getScientificValue() == relaxed.getScientificValue()) {
+			sink.accept(presolve.mapBack(incumbent));
+			sink.close();
+			if (text) {
+				System.out.println("Optimal by dynamic programming, no search needed.");
+			}
+			return;
+		}
 		
-		// States that the experiment's value is to be maximised
-		model.setObjective(Model.MAXIMIZE, scientificValue);
+		// Note - Using the default search strategy, started from the incumbent	
+		PioneerModel pioneerModel = PioneerModel.build(instance, SearchStrategy.DEFAULT);
+		pioneerModel.warmStart(incumbent, relaxed.getScientificValue());
+		Solver solver = pioneerModel.getModel().getSolver(); // solving the problem
+		SolverMetrics metrics = SolverMetrics.fromArguments(args, "pioneer", pioneerModel.getModel(), pioneerModel.getConstraintGroups());
 		
-		int numsolutions = 0;
 		while (solver.solve()) { 
-			numsolutions++;
-			System.out.println("Solution " + numsolutions + ":  --------------------------------------");
-			// Next code block interrogates the variables and gets the current solution
-			System.out.print("types:   ");
-			for (int type = 0; type<numTypes; type++) {
-				System.out.print("\t" + type);
-			}
-			System.out.println();
-			System.out.print("experiments:   ");
-			for (int type = 0; type<numTypes; type++) {
-				System.out.print("\t" + experiments[type].getValue());
-			}
-			System.out.println( "\n\ntotal time= " + totalTime.getValue());
-			System.out.println("Scientific Value= " + scientificValue.getValue() + "\n");
+			sink.accept(presolve.mapBack(PioneerSolution.of(pioneerModel)));
 		}
 	    // Note - last solution generated is the optimal one
-		solver.printStatistics(); 	
+		sink.close();
+		metrics.close();
+		if (text) {
+			solver.printStatistics(); 	
+		}
 	}	
 }
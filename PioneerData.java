@@ -0,0 +1,91 @@
+import java.io.IOException;
+
+/*
+ *  Pioneer data
+ *  Reads a Pioneer lander problem from file, in the layout described in Pioneer116365436:
+ *  n t b, then n lines of (hours, value, maximum count) and b pairs of experiment types.
+ *
+ *  The file is read through a memory-mapped InstanceScanner; the pairs are kept in one flat array
+ *  and only turned into a b x 2 matrix when getBefores() asks for one.
+ */
+
+public class PioneerData {
+	private final int numTypes;
+	private final int totalHours;
+	private final int numBefores;
+	private final int[] hours;
+	private final int[] values;
+	private final int[] totals;
+	private final int[] befores;		// befores[2i], befores[2i + 1]: the i-th pair
+	private final int maxValues;
+
+	public PioneerData(String file) throws IOException {
+		try (InstanceScanner in = new InstanceScanner(file)) {
+			numTypes = in.nextInt();
+			totalHours = in.nextInt();
+			numBefores = in.nextInt();
+			hours = new int[numTypes];
+			values = new int[numTypes];
+			totals = new int[numTypes];
+			int sum = 0;
+			for (int type = 0; type < numTypes; type++) {
+				hours[type] = in.nextInt();
+				values[type] = in.nextInt();
+				totals[type] = in.nextInt();
+				try {
+					sum = Math.addExact(sum, Math.multiplyExact(values[type], totals[type]));
+				}
+				catch (ArithmeticException e) {
+					throw new IOException(file + ": the total value of all experiments does not fit in an int", e);
+				}
+			}
+			maxValues = sum;
+			befores = new int[2 * numBefores];
+			for (int i = 0; i < befores.length; i++) {
+				befores[i] = in.nextInt();
+				if (befores[i] < 0 || befores[i] >= numTypes) {
+					throw new IOException(file + ": no experiment type " + befores[i]);
+				}
+			}
+		}
+	}
+
+	public int getNumTypes() {
+		return numTypes;
+	}
+
+	public int getTotalHours() {
+		return totalHours;
+	}
+
+	public int getNumBefores() {
+		return numBefores;
+	}
+
+	public int[] getHours() {
+		return hours;
+	}
+
+	public int[] getValues() {
+		return values;
+	}
+
+	public int[] getTotals() {
+		return totals;
+	}
+
+	/*
+	 *  The pairs as a b x 2 matrix: getBefores()[i][1] must not be run more often than getBefores()[i][0].
+	 */
+	public int[][] getBefores() {
+		int[][] pairs = new int[numBefores][];
+		for (int i = 0; i < numBefores; i++) {
+			pairs[i] = new int[] {befores[2 * i], befores[2 * i + 1]};
+		}
+		return pairs;
+	}
+
+	public int getMaxValues() {
+		return maxValues;
+	}
+}
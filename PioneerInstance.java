@@ -0,0 +1,75 @@
+/*
+ *  Pioneer instance
+ *  A read-only snapshot of the data of one Pioneer lander problem, as read by PioneerData.
+ *
+ *  See Pioneer116365436 for the layout of the data files.
+ */
+
+public class PioneerInstance {
+	private final int numTypes;					// the number of experiment types
+	private final int totalHours;				// the total time available for experiments
+	private final int[] hours;					// the hours for the experiments
+	private final int[] values;					// the scientific values for the experiments
+	private final int[] totals;					// the total amount of times it is possible to carry out each experiment
+	private final int[][] befores;				// pairs {e0, e1}: no more experiments of type e1 than of type e0
+	private final int maxValue;					// the total value for all experiments
+
+	public PioneerInstance(int numTypes, int totalHours, int[] hours, int[] values, int[] totals, int[][] befores) {
+		this.numTypes = numTypes;
+		this.totalHours = totalHours;
+		this.hours = hours;
+		this.values = values;
+		this.totals = totals;
+		this.befores = befores;
+		int sum = 0;
+		try {
+			for (int type = 0; type < numTypes; type++) {
+				sum = Math.addExact(sum, Math.multiplyExact(values[type], totals[type]));
+			}
+		}
+		catch (ArithmeticException e) {
+			throw new IllegalArgumentException("The total value of all experiments does not fit in an int", e);
+		}
+		this.maxValue = sum;
+	}
+
+	/*
+	 *  Takes a snapshot of everything the reader has loaded.
+	 */
+	public static PioneerInstance read(PioneerData data) {
+		return new PioneerInstance(data.getNumTypes(), data.getTotalHours(), data.getHours(), data.getValues(),
+				data.getTotals(), data.getBefores());
+	}
+
+	public int getNumTypes() {
+		return numTypes;
+	}
+
+	public int getTotalHours() {
+		return totalHours;
+	}
+
+	public int getNumBefores() {
+		return befores.length;
+	}
+
+	public int[] getHours() {
+		return hours;
+	}
+
+	public int[] getValues() {
+		return values;
+	}
+
+	public int[] getTotals() {
+		return totals;
+	}
+
+	public int[][] getBefores() {
+		return befores;
+	}
+
+	public int getMaxValue() {
+		return maxValue;
+	}
+}
@@ -0,0 +1,268 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ *  Dynamic programming engine for the Pioneer lander problem
+ *  Solves the bounded knapsack (hours, values, totals) of a PioneerInstance exactly, in pseudo-polynomial time
+ *  O(totalHours * sum(log totals)), instead of walking a chain of improving solutions in Choco.
+ *
+ *  best[c] holds the highest scientific value reachable in at most c hours. Each experiment type is split into
+ *  groups of 1, 2, 4, ... experiments (binary splitting), so that every count 0..total of that type is a
+ *  combination of its groups, and each group is added with the usual 0/1 knapsack step. A step only reads the
+ *  previous table, so the range of hours is cut into chunks that a fork-join pool fills in parallel; which
+ *  groups were taken is recorded one bit per hour, to read the counts back once the table is complete.
+ *
+ *  The befores are not part of the DP. When there are none the result is optimal and Choco is not needed at all;
+ *  otherwise the DP value is an upper bound, and repair() turns its counts into a feasible incumbent.
+ *  The table, kept by table(), has the same for every number of hours up to totalHours at no extra cost.
+ */
+
+public class PioneerKnapsackDP {
+	private static final int CHUNK = 1 << 14;			// hours per fork-join task, a multiple of 64
+
+	private PioneerKnapsackDP() {
+	}
+
+	/*
+	 *  The optimal choice of experiments, ignoring the befores.
+	 */
+	public static PioneerSolution solve(PioneerInstance instance) {
+		return solve(instance, ForkJoinPool.commonPool());
+	}
+
+	public static PioneerSolution solve(PioneerInstance instance, ForkJoinPool pool) {
+		return table(instance, pool).solutionWithin(instance.getTotalHours());
+	}
+
+	/*
+	 *  The whole table, to read the optimal choice for any number of hours up to totalHours (see PioneerPareto).
+	 */
+	public static Table table(PioneerInstance instance) {
+		return table(instance, ForkJoinPool.commonPool());
+	}
+
+	public static Table table(PioneerInstance instance, ForkJoinPool pool) {
+		int numTypes = instance.getNumTypes();
+		int totalHours = instance.getTotalHours();
+		int[] hours = instance.getHours();
+		int[] values = instance.getValues();
+		int[] total = instance.getTotals();
+		int[] free = new int[numTypes];
+
+		int numGroups = 0;
+		for (int type = 0; type < numTypes; type++) {
+			if (values[type] <= 0) {
+				continue; 											// never worth running
+			}
+			if (hours[type] == 0) {
+				free[type] = total[type]; 							// free, always run them all
+				continue;
+			}
+			numGroups += 32 - Integer.numberOfLeadingZeros(total[type]);
+		}
+		int[] groupType = new int[numGroups];
+		int[] groupSize = new int[numGroups];
+		int group = 0;
+		for (int type = 0; type < numTypes; type++) {
+			if (values[type] <= 0 || hours[type] == 0) {
+				continue;
+			}
+			int left = total[type];
+			for (int size = 1; left > 0; size <<= 1) {				// 1, 2, 4, ... and whatever is left over
+				groupType[group] = type;
+				groupSize[group] = Math.min(size, left);
+				left -= groupSize[group];
+				group++;
+			}
+		}
+
+		int[] best = new int[totalHours + 1];
+		int[] next = new int[totalHours + 1];
+		long[][] taken = new long[numGroups][];
+		for (group = 0; group < numGroups; group++) {
+			long weight = (long) groupSize[group] * hours[groupType[group]];
+			if (weight > totalHours) {
+				continue; 											// never fits, leave taken[group] null
+			}
+			taken[group] = new long[(totalHours >> 6) + 1];
+			Step step = new Step(best, next, taken[group], (int) weight, groupSize[group] * values[groupType[group]],
+					0, totalHours + 1);
+			if (totalHours < CHUNK) {
+				step.compute();
+			}
+			else {
+				pool.invoke(step);
+			}
+			int[] swap = best;
+			best = next;
+			next = swap;
+		}
+		return new Table(instance, best, taken, groupType, groupSize, free);
+	}
+
+	/*
+	 *  The filled table: the best value within each number of hours, and the groups taken to read the counts back.
+	 */
+	public static class Table {
+		private final PioneerInstance instance;
+		private final int[] best;
+		private final long[][] taken;
+		private final int[] groupType;
+		private final int[] groupSize;
+		private final int[] free;								// the counts of the types that take no time
+		private final int freeValue;
+
+		private Table(PioneerInstance instance, int[] best, long[][] taken, int[] groupType, int[] groupSize, int[] free) {
+			this.instance = instance;
+			this.best = best;
+			this.taken = taken;
+			this.groupType = groupType;
+			this.groupSize = groupSize;
+			this.free = free;
+			this.freeValue = PioneerSolution.of(instance, free).getScientificValue();
+		}
+
+		/*
+		 *  The highest value reachable in at most the given hours, ignoring the befores.
+		 */
+		public int bestWithin(int hours) {
+			return best[hours] + freeValue;
+		}
+
+		/*
+		 *  The fewest hours in which the value can be reached ignoring the befores, or -1 if it cannot be at all.
+		 */
+		public int leastHoursFor(int value) {
+			if (bestWithin(best.length - 1) < value) {
+				return -1;
+			}
+			int low = 0;
+			int high = best.length - 1;
+			while (low < high) {									// best is nondecreasing in the hours
+				int middle = (low + high) >>> 1;
+				if (bestWithin(middle) >= value) {
+					high = middle;
+				}
+				else {
+					low = middle + 1;
+				}
+			}
+			return low;
+		}
+
+		/*
+		 *  A choice reaching bestWithin(hours) in at most those hours.
+		 */
+		public PioneerSolution solutionWithin(int hours) {
+			int[] experiments = free.clone();
+			int hoursLeft = hours;
+			for (int group = groupType.length - 1; group >= 0; group--) {	// walk the groups back to read the counts
+				if (taken[group] != null && (taken[group][hoursLeft >> 6] & (1L << hoursLeft)) != 0) {
+					experiments[groupType[group]] += groupSize[group];
+					hoursLeft -= groupSize[group] * instance.getHours()[groupType[group]];
+				}
+			}
+			return PioneerSolution.of(instance, experiments);
+		}
+	}
+
+	/*
+	 *  Makes a choice of experiments satisfy the befores: lowers the second type of each violated pair down to the
+	 *  first until none is violated, then spends the hours freed on whatever still fits, best value per hour first.
+	 */
+	public static PioneerSolution repair(PioneerInstance instance, int[] counts) {
+		return repair(instance, counts, instance.getTotalHours());
+	}
+
+	/*
+	 *  The same within the given hours, which the counts must already fit in.
+	 */
+	public static PioneerSolution repair(PioneerInstance instance, int[] counts, int totalHours) {
+		int numTypes = instance.getNumTypes();
+		int[] hours = instance.getHours();
+		int[] values = instance.getValues();
+		int[] total = instance.getTotals();
+		int[][] befores = instance.getBefores();
+		int[] experiments = counts.clone();
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int[] before : befores) {
+				if (experiments[before[1]] > experiments[before[0]]) {
+					experiments[before[1]] = experiments[before[0]];
+					changed = true;
+				}
+			}
+		}
+
+		Integer[] byDensity = new Integer[numTypes];
+		for (int type = 0; type < numTypes; type++) {
+			byDensity[type] = type;
+		}
+		Arrays.sort(byDensity, (a, b) -> Long.compare((long) values[b] * hours[a], (long) values[a] * hours[b]));
+		int hoursLeft = totalHours - PioneerSolution.of(instance, experiments).getTotalTime();
+		for (int type : byDensity) {
+			while (values[type] > 0 && experiments[type] < total[type] && hours[type] <= hoursLeft
+					&& canAddOne(befores, experiments, type)) {
+				experiments[type]++;
+				hoursLeft -= hours[type];
+			}
+		}
+		return PioneerSolution.of(instance, experiments);
+	}
+
+	private static boolean canAddOne(int[][] befores, int[] experiments, int type) {
+		for (int[] before : befores) {
+			if (before[1] == type && experiments[type] + 1 > experiments[before[0]]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 *  One 0/1 knapsack step over the hours [from, to): next[c] = max(best[c], best[c - weight] + value).
+	 *  Chunks start on multiples of 64, so no two tasks write to the same word of taken.
+	 */
+	private static class Step extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] best;
+		private final int[] next;
+		private final long[] taken;
+		private final int weight;
+		private final int value;
+		private final int from;
+		private final int to;
+
+		Step(int[] best, int[] next, long[] taken, int weight, int value, int from, int to) {
+			this.best = best;
+			this.next = next;
+			this.taken = taken;
+			this.weight = weight;
+			this.value = value;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > CHUNK) {
+				int middle = from + (((to - from) >> 1) & ~63);
+				invokeAll(new Step(best, next, taken, weight, value, from, middle),
+						new Step(best, next, taken, weight, value, middle, to));
+				return;
+			}
+			for (int c = from; c < to; c++) {
+				if (c >= weight && best[c - weight] + value > best[c]) {
+					next[c] = best[c - weight] + value;
+					taken[c >> 6] |= 1L << c;
+				}
+				else {
+					next[c] = best[c];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.variables.IntVar;
+
+/*
+ *  Pioneer model
+ *  Builds the Choco model of the Pioneer lander problem described in Pioneer116365436 for one PioneerInstance,
+ *  and keeps hold of the variables needed to search it and read solutions back.
+ */
+
+public class PioneerModel {
+	private final PioneerInstance instance;
+	private final Model model;
+	private final IntVar[] experiments;			// how many of each experiment type
+	private final IntVar totalTime;				// The total time for selected experiments
+	private final IntVar scientificValue;		// The total scientific value of selected items
+	private final Map<String, Constraint[]> constraintGroups = new LinkedHashMap<>(); // Posted constraints by part of the model
+
+	private PioneerModel(PioneerInstance instance) {
+		this.instance = instance;
+		model = new Model("The Pioneer lander Problem");
+		int numTypes = instance.getNumTypes();
+		int numBefores = instance.getNumBefores();
+		int[] total = instance.getTotals();
+		int[][] befores = instance.getBefores();
+
+		experiments = new IntVar[numTypes];
+		for (int type = 0; type<numTypes; type++) {
+			experiments[type] = model.intVar("experiments"+type, 0,  total[type]); // how many of each experiment type
+		}
+
+		// Creating variables
+		totalTime = model.intVar("total time", 0, instance.getTotalHours());
+		scientificValue = model.intVar("scientific value", 0, instance.getMaxValue());
+
+		// The total time and value as scalar sums. Not Choco's 'knapsack' constraint, which prunes valid choices once
+		// the value is bounded from below and some types take no time (e.g. by warmStart), and so misses optima
+		model.scalar(experiments, instance.getHours(), "=", totalTime).post();
+		model.scalar(experiments, instance.getValues(), "=", scientificValue).post();
+		endGroup("scalar");
+
+		for (int i = 0; i<numBefores; i++) { // Iterate through all the restrictions on pairs of experiments
+			// There should not be more experiments of the second type than the first type.
+			model.arithm(experiments[befores[i][1]], "<=", experiments[befores[i][0]]).post();
+		}
+		endGroup("befores");
+
+		// States that the experiment's value is to be maximised
+		model.setObjective(Model.MAXIMIZE, scientificValue);
+	}
+
+	/*
+	 *  Files every constraint posted since the previous group under the name, for SolverMetrics.
+	 */
+	private void endGroup(String name) {
+		Constraint[] posted = model.getCstrs();
+		int grouped = constraintGroups.values().stream().mapToInt(group -> group.length).sum();
+		constraintGroups.put(name, Arrays.copyOfRange(posted, grouped, posted.length));
+	}
+
+	/*
+	 *  Builds a fresh model of the instance, with the given search strategy installed on its solver.
+	 */
+	public static PioneerModel build(PioneerInstance instance, SearchStrategy strategy) {
+		PioneerModel pioneerModel = new PioneerModel(instance);
+		strategy.apply(pioneerModel.model.getSolver(), pioneerModel.experiments);
+		return pioneerModel;
+	}
+
+	/*
+	 *  Narrows the objective to [incumbent, upperBound] and hints the incumbent's counts to the solver, so that the
+	 *  first solution found is the incumbent and the search only has to prove or improve it.
+	 *  Both usually come from PioneerKnapsackDP.
+	 */
+	public void warmStart(PioneerSolution incumbent, int upperBound) {
+		model.arithm(scientificValue, "<=", upperBound).post();
+		model.arithm(scientificValue, ">=", incumbent.getScientificValue()).post();
+		for (int type = 0; type < experiments.length; type++) {
+			model.getSolver().addHint(experiments[type], incumbent.getExperiments()[type]);
+		}
+	}
+
+	public PioneerInstance getInstance() {
+		return instance;
+	}
+
+	public Model getModel() {
+		return model;
+	}
+
+	public IntVar[] getExperiments() {
+		return experiments;
+	}
+
+	public IntVar getTotalTime() {
+		return totalTime;
+	}
+
+	public IntVar getScientificValue() {
+		return scientificValue;
+	}
+
+	/*
+	 *  The constraints of the model as built, by the part of the model they come from, in the order posted.
+	 *  The bounds and hints of warmStart are not in any group.
+	 */
+	public Map<String, Constraint[]> getConstraintGroups() {
+		return constraintGroups;
+	}
+}
@@ -0,0 +1,204 @@
+import java.util.function.Consumer;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.variables.IntVar;
+
+/*
+ *  Pioneer Pareto front
+ *  The choices of experiments that no other choice dominates in (totalTime, scientificValue), i.e. the best choice
+ *  for every budget of hours from 0 to totalHours, one for each total time at which the best value goes up.
+ *
+ *  The points are found in order of increasing time, each handed over as soon as it is proved, in one pass:
+ *  	- the next point is the least time reaching more value than the last point, then the most value within that
+ *  	  time. Both are bounded by the table of PioneerKnapsackDP, filled once for every number of hours: without the
+ *  	  befores, no choice is worth more within t hours than the table says, nor reaches a value in fewer hours;
+ *  	- the table's choice at the bound on time, repaired to meet the befores, proves the point when it reaches
+ *  	  both bounds, with no search at all. Without befores this is every point;
+ *  	- otherwise one model, built the first time it is needed and kept, is searched for the point within these
+ *  	  bounds, which are posted as cuts for the search and removed after it.
+ *  The types that appear in no before are a plain knapsack: whatever hours they get, the best use of them is read
+ *  from a second table, of these types alone. So the model only has a variable for each type in a before, plus
+ *  the hours given to the others, whose value is that table's entry (an element constraint). Time and value are
+ *  scalar sums, as in PioneerModel.
+ *  No choice reaching more value than the last point means the front is complete.
+ */
+
+public class PioneerPareto {
+	private final PioneerInstance instance;
+	private final PioneerKnapsackDP.Table table;
+	private Model model;							// null until a point needs a search
+	private IntVar[] experiments;					// of the types in a before, null for the others
+	private IntVar otherHours;						// hours given to the types in no before
+	private IntVar totalTime;
+	private IntVar scientificValue;
+	private PioneerKnapsackDP.Table otherTable;		// of the types in no before alone
+	private int[] otherTypes;						// their types in the instance
+	private int numPoints;
+	private int numSearches;
+
+	public PioneerPareto(PioneerInstance instance) {
+		this.instance = instance;
+		this.table = PioneerKnapsackDP.table(instance);
+	}
+
+	/*
+	 *  Hands each point of the front to the consumer, from the shortest total time to the longest.
+	 */
+	public void run(Consumer<PioneerSolution> onPoint) {
+		int target = 0;									// the value the next point must reach
+		while (true) {
+			int leastHours = table.leastHoursFor(target);
+			if (leastHours < 0) {
+				return;
+			}
+			PioneerSolution point = PioneerKnapsackDP.repair(instance, table.solutionWithin(leastHours).getExperiments(), leastHours);
+			if (point.getScientificValue() < target) {
+				point = search(Model.MINIMIZE, leastHours, instance.getTotalHours(), target, instance.getMaxValue());
+				if (point == null) {
+					return;
+				}
+			}
+			int upperBound = table.bestWithin(point.getTotalTime());
+			if (point.getScientificValue() < upperBound) {
+				PioneerSolution better = search(Model.MAXIMIZE, 0, point.getTotalTime(), point.getScientificValue(), upperBound);
+				if (better != null) { 					// the point itself is within the bounds, so never null
+					point = better;
+				}
+			}
+			numPoints++;
+			onPoint.accept(point);
+			target = point.getScientificValue() + 1;
+		}
+	}
+
+	/*
+	 *  The optimal choice within the bounds on time and value, for the given direction: least time or most value,
+	 *  or null if there is no choice within them.
+	 */
+	private PioneerSolution search(boolean direction, int minTime, int maxTime, int minValue, int maxValue) {
+		if (model == null) {
+			buildModel();
+		}
+		Solver solver = model.getSolver();
+		solver.reset();
+		Constraint[] cuts = {
+				model.arithm(totalTime, ">=", minTime),
+				model.arithm(totalTime, "<=", maxTime),
+				model.arithm(scientificValue, ">=", minValue),
+				model.arithm(scientificValue, "<=", maxValue) };
+		for (Constraint cut : cuts) {
+			cut.post();
+		}
+		model.setObjective(direction, direction == Model.MINIMIZE ? totalTime : scientificValue);
+
+		PioneerSolution best = null;
+		while (solver.solve()) {
+			best = readSolution();
+		}
+		for (Constraint cut : cuts) {
+			model.unpost(cut);
+		}
+		numSearches++;
+		return best;
+	}
+
+	private void buildModel() {
+		int numTypes = instance.getNumTypes();
+		int[] hours = instance.getHours();
+		int[] values = instance.getValues();
+		boolean[] inBefore = new boolean[numTypes];
+		int numInBefore = 0;
+		for (int[] before : instance.getBefores()) {
+			for (int type : before) {
+				if (!inBefore[type]) {
+					inBefore[type] = true;
+					numInBefore++;
+				}
+			}
+		}
+		otherTypes = new int[numTypes - numInBefore];
+		int[] otherHoursOf = new int[otherTypes.length];
+		int[] otherValues = new int[otherTypes.length];
+		int[] otherTotals = new int[otherTypes.length];
+		for (int type = 0, other = 0; type < numTypes; type++) {
+			if (!inBefore[type]) {
+				otherTypes[other] = type;
+				otherHoursOf[other] = hours[type];
+				otherValues[other] = values[type];
+				otherTotals[other] = instance.getTotals()[type];
+				other++;
+			}
+		}
+		otherTable = PioneerKnapsackDP.table(new PioneerInstance(otherTypes.length, instance.getTotalHours(),
+				otherHoursOf, otherValues, otherTotals, new int[0][]));
+		int[] otherBest = new int[instance.getTotalHours() + 1];
+		for (int h = 0; h < otherBest.length; h++) {
+			otherBest[h] = otherTable.bestWithin(h);
+		}
+
+		model = new Model("Pioneer Pareto front");
+		experiments = new IntVar[numTypes];
+		IntVar[] terms = new IntVar[numInBefore + 2];	// the types in a before, then the others' hours and value
+		int[] termHours = new int[terms.length];
+		int[] termValues = new int[terms.length];
+		for (int type = 0, term = 0; type < numTypes; type++) {
+			if (inBefore[type]) {
+				experiments[type] = model.intVar("experiments" + type, 0, instance.getTotals()[type]);
+				terms[term] = experiments[type];
+				termHours[term] = hours[type];
+				termValues[term] = values[type];
+				term++;
+			}
+		}
+		otherHours = model.intVar("other hours", 0, instance.getTotalHours());
+		IntVar otherValue = model.intVar("other value", 0, otherBest[otherBest.length - 1]);
+		model.element(otherValue, otherBest, otherHours).post();
+		terms[numInBefore] = otherHours;
+		termHours[numInBefore] = 1;
+		terms[numInBefore + 1] = otherValue;
+		termValues[numInBefore + 1] = 1;
+		totalTime = model.intVar("total time", 0, instance.getTotalHours());
+		scientificValue = model.intVar("scientific value", 0, instance.getMaxValue());
+		model.scalar(terms, termHours, "=", totalTime).post();
+		model.scalar(terms, termValues, "=", scientificValue).post();
+		for (int[] before : instance.getBefores()) {
+			model.arithm(experiments[before[1]], "<=", experiments[before[0]]).post();
+		}
+		IntVar[] decisions = new IntVar[numInBefore + 1];
+		System.arraycopy(terms, 0, decisions, 0, decisions.length);
+		SearchStrategy.INPUT_ORDER_UB.apply(model.getSolver(), decisions);
+	}
+
+	/*
+	 *  The choice of the current solution: the counts of the types in a before, and the table's choice for the hours
+	 *  given to the others. It may take fewer hours than totalTime says, never less value.
+	 */
+	private PioneerSolution readSolution() {
+		int[] counts = new int[instance.getNumTypes()];
+		for (int type = 0; type < counts.length; type++) {
+			if (experiments[type] != null) {
+				counts[type] = experiments[type].getValue();
+			}
+		}
+		int[] others = otherTable.solutionWithin(otherHours.getValue()).getExperiments();
+		for (int other = 0; other < otherTypes.length; other++) {
+			counts[otherTypes[other]] = others[other];
+		}
+		return PioneerSolution.of(instance, counts);
+	}
+
+	public int getNumPoints() {
+		return numPoints;
+	}
+
+	/*
+	 *  The Choco searches the front needed, two at most for each point.
+	 */
+	public int getNumSearches() {
+		return numSearches;
+	}
+}
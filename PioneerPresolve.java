@@ -0,0 +1,281 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ *  Pioneer presolve
+ *  Reduces a PioneerInstance before the model is built, and maps the solutions of the reduced instance back.
+ *
+ *  Passes, repeated until nothing changes:
+ *  	- the total of each type is capped by what fits in totalHours, then by the total of every type that must come
+ *  	  before it (befores {a, b}: no more of b than of a);
+ *  	- types capped to 0 are removed, as are types with no value that no other type has to come after: taking
+ *  	  none of them is never worse;
+ *  	- types in a cycle of befores must be taken the same number of times, and are merged into one type whose
+ *  	  hours and value are the sums of theirs;
+ *  	- befores on removed types, and befores implied by a chain of others (a before b before c implies a before c),
+ *  	  are dropped.
+ *  The reduced instance has the same optimal value. Types of the reduced instance are numbered in the order of the
+ *  first original type they come from.
+ */
+
+public class PioneerPresolve {
+	private final PioneerInstance original;
+	private final PioneerInstance reduced;
+	private final int[] reducedType;			// the type of the reduced instance each original type is part of, or -1
+
+	private PioneerPresolve(PioneerInstance original, PioneerInstance reduced, int[] reducedType) {
+		this.original = original;
+		this.reduced = reduced;
+		this.reducedType = reducedType;
+	}
+
+	public static PioneerPresolve reduce(PioneerInstance instance) {
+		int[] reducedType = new int[instance.getNumTypes()];
+		for (int type = 0; type < reducedType.length; type++) {
+			reducedType[type] = type;
+		}
+		PioneerInstance current = instance;
+		while (true) {
+			int[] step = new int[current.getNumTypes()];
+			PioneerInstance next = pass(current, step);
+			for (int type = 0; type < reducedType.length; type++) {
+				reducedType[type] = reducedType[type] < 0 ? -1 : step[reducedType[type]];
+			}
+			boolean unchanged = next.getNumTypes() == current.getNumTypes() && next.getNumBefores() == current.getNumBefores()
+					&& Arrays.equals(next.getTotals(), current.getTotals());
+			current = next;
+			if (unchanged) {
+				return new PioneerPresolve(instance, current, reducedType);
+			}
+		}
+	}
+
+	/*
+	 *  The counts of the original types for a solution of the reduced instance.
+	 */
+	public PioneerSolution mapBack(PioneerSolution solution) {
+		int[] experiments = new int[original.getNumTypes()];
+		for (int type = 0; type < experiments.length; type++) {
+			if (reducedType[type] >= 0) {
+				experiments[type] = solution.getExperiments()[reducedType[type]];
+			}
+		}
+		return PioneerSolution.of(original, experiments);
+	}
+
+	public PioneerInstance getReduced() {
+		return reduced;
+	}
+
+	public int getNumRemoved() {
+		return original.getNumTypes() - reduced.getNumTypes();
+	}
+
+	/*
+	 *  One round of every reduction. Fills reducedType with the type each type of the instance becomes, or -1.
+	 */
+	private static PioneerInstance pass(PioneerInstance instance, int[] reducedType) {
+		int numTypes = instance.getNumTypes();
+		int[] hours = instance.getHours();
+		int[] values = instance.getValues();
+		int[][] befores = instance.getBefores();
+
+		int[] totals = instance.getTotals().clone();
+		for (int type = 0; type < numTypes; type++) {
+			if (hours[type] > 0) {
+				totals[type] = Math.min(totals[type], instance.getTotalHours() / hours[type]);
+			}
+		}
+		boolean capped = true;
+		for (int round = 0; capped && round < numTypes; round++) { 	// at most one round per type along any chain
+			capped = false;
+			for (int[] before : befores) {
+				if (totals[before[1]] > totals[before[0]]) {
+					totals[before[1]] = totals[before[0]];
+					capped = true;
+				}
+			}
+		}
+
+		boolean[] removed = new boolean[numTypes];
+		boolean[] hasSuccessor = new boolean[numTypes];
+		for (int type = 0; type < numTypes; type++) {
+			removed[type] = totals[type] == 0;
+		}
+		for (int[] before : befores) {
+			if (!removed[before[1]] && before[0] != before[1]) {
+				hasSuccessor[before[0]] = true;
+			}
+		}
+		for (int type = 0; type < numTypes; type++) {
+			removed[type] |= values[type] <= 0 && !hasSuccessor[type];
+		}
+
+		List<List<Integer>> successors = new ArrayList<>();
+		for (int type = 0; type < numTypes; type++) {
+			successors.add(new ArrayList<>());
+		}
+		for (int[] before : befores) {
+			if (!removed[before[0]] && !removed[before[1]] && before[0] != before[1]) {
+				successors.get(before[0]).add(before[1]);
+			}
+		}
+		int[] component = stronglyConnectedComponents(successors, removed);
+
+		// The merged types, numbered in order of their first member
+		int[] componentType = new int[numTypes];
+		Arrays.fill(componentType, -1);
+		int numReduced = 0;
+		for (int type = 0; type < numTypes; type++) {
+			if (removed[type]) {
+				reducedType[type] = -1;
+			}
+			else {
+				if (componentType[component[type]] < 0) {
+					componentType[component[type]] = numReduced++;
+				}
+				reducedType[type] = componentType[component[type]];
+			}
+		}
+		int[] reducedHours = new int[numReduced];
+		int[] reducedValues = new int[numReduced];
+		int[] reducedTotals = new int[numReduced];
+		Arrays.fill(reducedTotals, Integer.MAX_VALUE);
+		for (int type = 0; type < numTypes; type++) {
+			if (reducedType[type] >= 0) {
+				reducedHours[reducedType[type]] += hours[type];
+				reducedValues[reducedType[type]] += values[type];
+				reducedTotals[reducedType[type]] = Math.min(reducedTotals[reducedType[type]], totals[type]);
+			}
+		}
+
+		Set<List<Integer>> edges = new LinkedHashSet<>(); 	// without duplicates, in the order given
+		for (int type = 0; type < numTypes; type++) {
+			for (int successor : successors.get(type)) {
+				if (reducedType[type] != reducedType[successor]) {
+					edges.add(Arrays.asList(reducedType[type], reducedType[successor]));
+				}
+			}
+		}
+		return new PioneerInstance(numReduced, instance.getTotalHours(), reducedHours, reducedValues, reducedTotals,
+				transitiveReduction(numReduced, edges));
+	}
+
+	/*
+	 *  The component of each type that is not removed, by Kosaraju's algorithm without recursion.
+	 */
+	private static int[] stronglyConnectedComponents(List<List<Integer>> successors, boolean[] removed) {
+		int numTypes = successors.size();
+		List<List<Integer>> predecessors = new ArrayList<>();
+		for (int type = 0; type < numTypes; type++) {
+			predecessors.add(new ArrayList<>());
+		}
+		for (int type = 0; type < numTypes; type++) {
+			for (int successor : successors.get(type)) {
+				predecessors.get(successor).add(type);
+			}
+		}
+		// Types in order of completion of a depth first search
+		int[] order = new int[numTypes];
+		int completed = 0;
+		boolean[] visited = new boolean[numTypes];
+		int[] next = new int[numTypes];
+		Deque<Integer> stack = new ArrayDeque<>();
+		for (int root = 0; root < numTypes; root++) {
+			if (visited[root] || removed[root]) {
+				continue;
+			}
+			visited[root] = true;
+			stack.push(root);
+			while (!stack.isEmpty()) {
+				int type = stack.peek();
+				if (next[type] < successors.get(type).size()) {
+					int successor = successors.get(type).get(next[type]++);
+					if (!visited[successor]) {
+						visited[successor] = true;
+						stack.push(successor);
+					}
+				}
+				else {
+					order[completed++] = stack.pop();
+				}
+			}
+		}
+		// Components on the reversed graph, in reverse order of completion
+		int[] component = new int[numTypes];
+		Arrays.fill(component, -1);
+		int numComponents = 0;
+		for (int i = completed - 1; i >= 0; i--) {
+			if (component[order[i]] >= 0) {
+				continue;
+			}
+			component[order[i]] = numComponents;
+			stack.push(order[i]);
+			while (!stack.isEmpty()) {
+				for (int predecessor : predecessors.get(stack.pop())) {
+					if (component[predecessor] < 0) {
+						component[predecessor] = numComponents;
+						stack.push(predecessor);
+					}
+				}
+			}
+			numComponents++;
+		}
+		return component;
+	}
+
+	/*
+	 *  The edges of an acyclic graph that are not implied by a path through other edges, as befores pairs.
+	 */
+	private static int[][] transitiveReduction(int numTypes, Set<List<Integer>> edges) {
+		List<List<Integer>> successors = new ArrayList<>();
+		int[] indegree = new int[numTypes];
+		for (int type = 0; type < numTypes; type++) {
+			successors.add(new ArrayList<>());
+		}
+		for (List<Integer> edge : edges) {
+			successors.get(edge.get(0)).add(edge.get(1));
+			indegree[edge.get(1)]++;
+		}
+		// Topological order, then reachability from the last type to the first
+		int[] order = new int[numTypes];
+		int ordered = 0;
+		for (int type = 0; type < numTypes; type++) {
+			if (indegree[type] == 0) {
+				order[ordered++] = type;
+			}
+		}
+		for (int i = 0; i < ordered; i++) {
+			for (int successor : successors.get(order[i])) {
+				if (--indegree[successor] == 0) {
+					order[ordered++] = successor;
+				}
+			}
+		}
+		BitSet[] reachable = new BitSet[numTypes];		// types reachable by a path of one edge or more
+		BitSet[] implied = new BitSet[numTypes];		// types reachable by a path of two edges or more
+		for (int i = numTypes - 1; i >= 0; i--) {
+			int type = order[i];
+			reachable[type] = new BitSet(numTypes);
+			implied[type] = new BitSet(numTypes);
+			for (int successor : successors.get(type)) {
+				reachable[type].set(successor);
+				reachable[type].or(reachable[successor]);
+				implied[type].or(reachable[successor]);
+			}
+		}
+		List<int[]> befores = new ArrayList<>();
+		for (List<Integer> edge : edges) {
+			if (!implied[edge.get(0)].get(edge.get(1))) {
+				befores.add(new int[] { edge.get(0), edge.get(1) });
+			}
+		}
+		return befores.toArray(new int[0][]);
+	}
+}
@@ -0,0 +1,84 @@
+import org.chocosolver.solver.variables.IntVar;
+
+/*
+ *  Pioneer solution
+ *  A choice of how many experiments of each type to run, with the time it takes and the value it brings.
+ */
+
+public class PioneerSolution implements SolutionSink.Printable {
+	private final int[] experiments;
+	private final int totalTime;
+	private final int scientificValue;
+
+	public PioneerSolution(int[] experiments, int totalTime, int scientificValue) {
+		this.experiments = experiments;
+		this.totalTime = totalTime;
+		this.scientificValue = scientificValue;
+	}
+
+	/*
+	 *  Works out the time and value of the given counts.
+	 */
+	public static PioneerSolution of(PioneerInstance instance, int[] experiments) {
+		int time = 0;
+		int value = 0;
+		for (int type = 0; type < experiments.length; type++) {
+			time += experiments[type] * instance.getHours()[type];
+			value += experiments[type] * instance.getValues()[type];
+		}
+		return new PioneerSolution(experiments, time, value);
+	}
+
+	/*
+	 *  Reads the current values of the model's variables; only valid right after the solver has found a solution.
+	 */
+	public static PioneerSolution of(PioneerModel pioneerModel) {
+		IntVar[] experiments = pioneerModel.getExperiments();
+		int[] counts = new int[experiments.length];
+		for (int type = 0; type < counts.length; type++) {
+			counts[type] = experiments[type].getValue();
+		}
+		return new PioneerSolution(counts, pioneerModel.getTotalTime().getValue(), pioneerModel.getScientificValue().getValue());
+	}
+
+	public int[] getExperiments() {
+		return experiments;
+	}
+
+	public int getTotalTime() {
+		return totalTime;
+	}
+
+	public int getScientificValue() {
+		return scientificValue;
+	}
+
+	@Override
+	public int getObjective() {
+		return scientificValue;
+	}
+
+	@Override
+	public void appendText(StringBuilder out) {
+		int numTypes = experiments.length; //the number of experiment types
+		out.append("types:   ");
+		for (int type = 0; type<numTypes; type++) {
+			out.append('\t').append(type);
+		}
+		out.append("\nexperiments:   ");
+		for (int type = 0; type<numTypes; type++) {
+			out.append('\t').append(experiments[type]);
+		}
+		out.append("\n\ntotal time= ").append(totalTime);
+		out.append("\nScientific Value= ").append(scientificValue).append("\n\n");
+	}
+
+	@Override
+	public void appendJson(StringBuilder out) {
+		out.append("\"totalTime\":").append(totalTime).append(",\"experiments\":[");
+		for (int type = 0; type < experiments.length; type++) {
+			out.append(type == 0 ? "" : ",").append(experiments[type]);
+		}
+		out.append(']');
+	}
+}
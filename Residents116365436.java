@@ -1,16 +1,10 @@
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /*------CHOCO Library Imports----------*/
 
-import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
-import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
-import org.chocosolver.solver.search.strategy.Search;
-import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
-//import org.chocosolver.solver.search.strategy.selectors.variables.ImpactBased;
-import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.util.tools.ArrayUtils;
 
 /*
  * Report
@@ -173,6 +167,20 @@ import org.chocosolver.util.tools.ArrayUtils;
 
 
 public class Residents116365436 {
+	public static final String USAGE = "Usage: Residents116365436 [-portfolio | -lns seconds | -rolling window | -time limit] [-all] [-json] [-metrics file]";
+
+	/*
+	 *  Usage: Residents116365436 [-portfolio | -lns seconds | -rolling window | -time limit] [-all] [-json] [-metrics file]
+	 *  With -portfolio, the search strategies below are raced on all cores (see ResidentsPortfolio)
+	 *  instead of running domOverWDegSearch alone. With -lns, a Large Neighbourhood Search improves the roster
+	 *  for the given number of seconds (see ResidentsLNS), reporting the optimality gap as it goes. With -rolling, long
+	 *  rosters are scheduled a window of that many shifts at a time (see RollingHorizon), -time limiting each window.
+	 *  The default search stops as soon as a schedule reaches the lower bound of ResidentsModel; with -time
+	 *  (e.g. 30s) it also stops at the time limit, and then reports the gap to the lower bound.
+	 *  Only the optimal schedule is printed unless -all is given; -json prints JSON lines (see SolutionSink).
+	 *  -metrics records propagation and search metrics of the default search into the file (see SolverMetrics); it is
+	 *  rejected with -portfolio, -lns or -rolling.
+	 */
 	public static void main(String[] args) throws IOException {
 		ResidentsReader data = new ResidentsReader("src/data/residents0.txt");	
 		/* 
@@ -182,149 +190,124 @@ public class Residents116365436 {
 		 //ResidentsReader data = new ResidentsReader("src/data/residents3.txt");
 		 //ResidentsReader data = new ResidentsReader("src/data/residents2.txt");
 		 //ResidentsReader data = new ResidentsReader("src/data/residents1.txt");
-	
-		int numResidents = data.getNumResidents(); 				// total number of residents-n
-		int numShifts = data.getNumShifts();                    // total number of shifts-m
-		int numQualifications = data.getNumQuals(); 			// total number of qualifications offered-q
-		int[] minStaffForShift = data.getMinResidents(); 		// array of size m-min staff for each shift 
-		int[][] qualificationsOffered = data.getQualsOffered(); // a qxm matrix of 0/1, where qualsOffered[i][j] means qual 
-																// i offered on shift j 							
-		int[][] qualificationsNeeded = data.getQualsNeeded();   // a nxq matrix of 0/1, where qualsNeeded[k][i] means 
-																// resident k needs qual i
-		int maxBlock = data.getMaxBlock(); 						// the maximum length of a block of shifts
-		int restPeriod = data.getRestPeriod(); 					// minimum free shifts required between blocks
-		int breakPeriod = data.getBreakPeriod();				// must be a sequence of free shifts this long
-		int minShifts = data.getMinShifts(); 					// minimum shifts to be scheduled per resident
-		
-		String breakToBeAdded = "";								// will store the break period that must be given to staff
-	    String maxToBeAdded = "";								// will store a FA representing the maximum number of 1's that can appear together
-	    String restSession = "";								// will store a FA for how long the rest period between shifts has to be
-	    String overallRegularExpression = "((<0>|";				// will store a FA for the possible combinations of breaks and shifts in 1's and 0's
-	    String overallEnding = "(<0>|";							// will store a FA of the possible endings for the rota
-		
-	    /*------SOLVER---------------*/
-		
-		Model model = new Model("The Residents Scheduling Problem");
-		
-		/*------VARIABLES------------*/
-		
-		int maxShifts = numShifts*numResidents; 											// Maximum possible number of shifts assigned
-	    IntVar totalNumberOfShifts = model.intVar(0, maxShifts);							// The sum of all shifts assigned.
-		IntVar shiftsAssigned[][] = model.intVarMatrix(numResidents,  numShifts, 0, 1); 	// A matrix of [residents][shift] with a boolean value of 0/1
-		IntVar shiftsPerResident [] = model.intVarArray(numResidents, 0, numShifts);		// Contains the sum of the total number of shifts per resident
-		
-		/*------CONSTRAINTS----------*/
-		
-		/*
-		 *  Part 1 of assignment:
-		 *  
-		 *  Constraint 1: Adding constraint that each resident must take at least one tutorial of the required type they need to qualify
-		 */ 	
-		
-	    for (int resident = 0; resident < numResidents; resident++) {
-	    	for (int qualification = 0; qualification < numQualifications; qualification++) {
-	    		if (qualificationsNeeded[resident][qualification] == 1) {
-	    			for (int qualificationTime = 0; qualificationTime < numShifts; qualificationTime++) {
-	    				if (qualificationsOffered[qualification][qualificationTime]==1) {
-	    					model.arithm(shiftsAssigned[resident][qualificationTime], "=", 1).post();
-	    					break; //Only one tutorial needs to be attended.
-	    				}			
-	    			}
-	    		}
-	    	}
-	    }
-	    
-	    /*
-		 *  Constraint 2: Each resident works a minimum number of shifts.
-		 */ 	
-	    
-	    for (int resident = 0; resident<numResidents; resident++) {
-	        model.sum(shiftsAssigned[resident], ">=", minShifts).post();
-	        model.sum(shiftsAssigned[resident],"=", shiftsPerResident[resident]).post(); // Storing the sum of each resident row, to calculate the overall scheduled shifts
-	    }
-	    
-	    /*
-		 * Constraint 3: Adding constraint that there should be a minimum number of staff per shift.
-		 */ 	
-	    
-	    IntVar staffAssigned[][] = ArrayUtils.transpose(shiftsAssigned);
-	    for (int shift = 0; shift<numShifts; shift++) {
-	        model.sum(staffAssigned[shift], ">=", minStaffForShift[shift]).post();  
-	    }
-	    
-	    /* 
-	     * Part 2 of assignment: 
-	     * 
-	     * Adding Constraint for a maximum block of shifts
-	     */
-	    
-	    for (int i=0; i<=breakPeriod-1;i++) {			  // constructing a finite automata of the break period required
-	    	breakToBeAdded = breakToBeAdded + "<0>";
-	    }
-	    String breakRegularExpression = "((<0>|<1>)*" + breakToBeAdded + "(<0>|<1>)*)";
-	    for (int i=0; i<=restPeriod-1;i++) {			  // constructing a finite automata representing the rest period between shifts
-	    	restSession = restSession + "<0>";
-	    }
-	    for (int i=0; i<=maxBlock-1;i++) {				  // constructing a finite automata representing the set of possible permutations of 1's and 0's that must be met 		
-	    	maxToBeAdded = maxToBeAdded + "<1>";
-	    	overallEnding = overallEnding + maxToBeAdded;
-	    	overallRegularExpression = overallRegularExpression  + maxToBeAdded + restSession;
-	    	if (!(maxBlock == i+1)){
-	    		overallRegularExpression = overallRegularExpression + "|";
-	    		overallEnding = overallEnding + "|";
-	    	}
-	    	else {
-	    		overallRegularExpression = overallRegularExpression + ")*)";
-	    		overallEnding = overallEnding + ")";
-	    	}
-	    }
-
-	    FiniteAutomaton shiftsAvailable = new FiniteAutomaton(overallRegularExpression+overallEnding);	// Enabling an ending of 1's 
-	    FiniteAutomaton brakeToTake = new FiniteAutomaton(breakRegularExpression);
-	    for(int resident=0; resident< numResidents; resident++) { 		// Post the regular expressions for each row.
-	    	model.regular(shiftsAssigned[resident],brakeToTake).post(); 
-		    model.regular(shiftsAssigned[resident],shiftsAvailable).post();
-	    }
-	    IntVar[] searchVars1 = ArrayUtils.flatten(staffAssigned);
-	    model.sum(shiftsPerResident, "=", totalNumberOfShifts).post();	// Assigning totalNumberOfShifts equal to the sum of all column sums
-	    Solver solver = model.getSolver();
-		model.setObjective(Model.MINIMIZE, totalNumberOfShifts);
-	    
-		/*------SEARCH STRATEGY-------*/
+		boolean portfolioMode = Arrays.asList(args).contains("-portfolio");
+		int lnsArgument = Arrays.asList(args).indexOf("-lns");
+		int rollingArgument = Arrays.asList(args).indexOf("-rolling");
+		int timeArgument = Arrays.asList(args).indexOf("-time");
+		if (Arrays.asList(args).contains("-metrics") && (portfolioMode || lnsArgument >= 0 || rollingArgument >= 0)) {
+			System.err.println("-metrics only records the default search, not -portfolio, -lns or -rolling. " + USAGE);
+			System.exit(2);
+		}
+		SolutionSink sink = SolutionSink.fromArguments(args);
+		boolean text = sink.getFormat() == SolutionSink.Format.TEXT;
 		
-		solver.setSearch(Search.domOverWDegSearch(searchVars1));
-		//solver.setSearch(Search.minDomLBSearch(searchVars1));
-		//solver.setSearch(Search.inputOrderUBSearch(searchVars1));
-		//solver.setSearch(Search.inputOrderLBSearch(searchVars1));
-		//solver.setSearch(Search.activityBasedSearch(searchVars1)); 		 
-		//solver.setSearch(new ImpactBased(searchVars1, true));
-
-		/*------SOLUTION-------------*/
+		// Forced cells are fixed and settled tutorials dropped before any model is built (see ResidentsPresolve)
+		ResidentsPresolve presolve = ResidentsPresolve.reduce(ResidentsInstance.read(data));
+		if (presolve.isInfeasible()) {
+			sink.infeasible(presolve.getReason());
+			sink.close();
+			return;
+		}
+		ResidentsInstance instance = presolve.getReduced();
 		
-		while (solver.solve()) { //print the solution
-			System.out.println("\nSolution " + solver.getSolutionCount() + ":");
-			System.out.println("				Shifts\n");
-			System.out.print("	");
-			var lengthOfBar = "---------";
-			for (int t = 0; t < numShifts; t++) {
-				System.out.print("	" + t + " ");
-				lengthOfBar = lengthOfBar + "--------";
+		if (portfolioMode) {
+			/*------PARALLEL PORTFOLIO---*/
+			
+			ResidentsPortfolio portfolio = new ResidentsPortfolio(instance);
+			while (portfolio.solve()) {
+				sink.accept(ResidentsSolution.of(portfolio.getBestWorker()));
 			}
-			System.out.print("\n");
-			System.out.println(lengthOfBar);
-			for (int residents = 0; residents < numResidents; residents++) { // Number of residents
-				System.out.print("resident_"+residents + ": 	");	            
-				for(int shiftNum =0; shiftNum < numShifts; shiftNum++) {
-					System.out.print( shiftsAssigned[residents][shiftNum].getValue() + "	");	
+			sink.close();
+			if (text) {
+				for (ResidentsModel worker : portfolio.getWorkers()) {
+					worker.getModel().getSolver().printStatistics();
 				}
-				System.out.print("\n");
 			}
-			System.out.print("Total amount of shifts: "+totalNumberOfShifts.getValue() + "\n   ");
+		}
+		else if (lnsArgument >= 0) {
+			/*------LARGE NEIGHBOURHOOD SEARCH---*/
 			
+			long budget = (long) (Double.parseDouble(optionValue(args, lnsArgument)) * 1000);
+			ResidentsLNS lns = new ResidentsLNS(instance, 0);
+			lns.run(budget, (incumbent, lowerBound, elapsed) -> {
+				sink.accept(incumbent);
+				System.err.printf("%.3fs: %d shifts, lower bound %d, gap %.1f%%%n", elapsed / 1000.0,
+						incumbent.getTotalNumberOfShifts(), lowerBound, 100 * ResidentsLNS.gap(incumbent.getTotalNumberOfShifts(), lowerBound));
+			});
+			sink.close();
+			if (text) {
+				System.out.println(lns.isOptimal() ? "Optimal: the lower bound is reached." : "Time budget used up, optimality not proved.");
+			}
+		}
+		else if (rollingArgument >= 0) {
+			/*------ROLLING HORIZON------*/
+			
+			RollingHorizon rolling = new RollingHorizon(instance, Integer.parseInt(optionValue(args, rollingArgument)));
+			if (timeArgument >= 0) {
+				rolling.setTimeLimit(optionValue(args, timeArgument));
+			}
+			ResidentsSolution stitched = rolling.solve();
+			if (stitched != null) {
+				sink.accept(stitched);
+			}
+			sink.close();
+			if (text) {
+				System.out.println(stitched == null ? "No schedule for the window starting at shift " + rolling.getFailedAt() + "."
+						: rolling.getNumWindows() + " windows, " + rolling.getNumRelaxed() + " without their share of minShifts, "
+						+ rolling.getNumWidened() + " widened, " + rolling.getNumBacktracked() + " solved again with the one before.");
+			}
+		}
+		else {
+			/*------SEARCH STRATEGY-------*/
+			
+			ResidentsModel residentsModel = ResidentsModel.build(instance, SearchStrategy.DOM_OVER_W_DEG);
+			//ResidentsModel residentsModel = ResidentsModel.build(instance, SearchStrategy.MIN_DOM_LB);
+			//ResidentsModel residentsModel = ResidentsModel.build(instance, SearchStrategy.INPUT_ORDER_UB);
+			//ResidentsModel residentsModel = ResidentsModel.build(instance, SearchStrategy.INPUT_ORDER_LB);
+			//ResidentsModel residentsModel = ResidentsModel.build(instance, SearchStrategy.ACTIVITY_BASED);
+			//ResidentsModel residentsModel = ResidentsModel.build(instance, SearchStrategy.IMPACT_BASED);
+			Solver solver = residentsModel.getModel().getSolver();
+			if (timeArgument >= 0) {
+				solver.limitTime(optionValue(args, timeArgument));
+			}
+			SolverMetrics metrics = SolverMetrics.fromArguments(args, "residents", residentsModel.getModel(), residentsModel.getConstraintGroups());
+			
+			/*------SOLUTION-------------*/
+			
+			ResidentsSolution best = null;
+			while (solver.solve()) { // snapshot the solution, the sink decides when to print it
+				best = ResidentsSolution.of(residentsModel);
+				sink.accept(best);
+			}
+			sink.close();
+			metrics.close();
+			if (text) {
+				solver.printStatistics();
+				int lowerBound = residentsModel.getLowerBound();
+				if (best != null && best.getTotalNumberOfShifts() <= lowerBound) {
+					System.out.println("Optimal: the lower bound is reached.");
+				}
+				else if (best != null && solver.isStopCriterionMet()) {
+					System.out.printf("Time limit reached: %d shifts, lower bound %d, gap %.1f%%%n", best.getTotalNumberOfShifts(),
+							lowerBound, 100 * ResidentsLNS.gap(best.getTotalNumberOfShifts(), lowerBound));
+				}
+			}
+		}
+		if (text) {
+			System.out.println("Residents116365436.java.");
 		}
-		solver.printStatistics();
-		System.out.println("Residents116365436.java.");
 		
 		}	
 		
+
+	/*
+	 *  The value given after the option at args[index]; prints the usage and exits if there is none.
+	 */
+	private static String optionValue(String[] args, int index) {
+		if (index + 1 == args.length) {
+			System.err.println("No value after " + args[index] + ". " + USAGE);
+			System.exit(2);
+		}
+		return args[index + 1];
+	}
 }
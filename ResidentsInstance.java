@@ -0,0 +1,85 @@
+/*
+ *  Residents instance
+ *  A read-only snapshot of the data of one residents scheduling problem, as read by ResidentsReader.
+ *
+ *  The data is read from file once and can then be handed to as many model builders as needed,
+ *  e.g. one per worker of the parallel portfolio, without going back to the file.
+ *  The qualification matrices are kept sparse (see SparseBinaryMatrix), as read.
+ */
+
+public class ResidentsInstance {
+	private final int numResidents; 						// total number of residents-n
+	private final int numShifts;							// total number of shifts-m
+	private final int numQualifications;					// total number of qualifications offered-q
+	private final int[] minStaffForShift;					// array of size m-min staff for each shift
+	private final SparseBinaryMatrix qualificationsOffered;	// a qxm matrix of 0/1, (i, j) means qual i offered on shift j
+	private final SparseBinaryMatrix qualificationsNeeded;	// a nxq matrix of 0/1, (k, i) means resident k needs qual i
+	private final int maxBlock;								// the maximum length of a block of shifts
+	private final int restPeriod;							// minimum free shifts required between blocks
+	private final int breakPeriod;							// must be a sequence of free shifts this long
+	private final int minShifts;							// minimum shifts to be scheduled per resident
+
+	public ResidentsInstance(int numResidents, int numShifts, int numQualifications, int[] minStaffForShift,
+			SparseBinaryMatrix qualificationsOffered, SparseBinaryMatrix qualificationsNeeded,
+			int maxBlock, int restPeriod, int breakPeriod, int minShifts) {
+		this.numResidents = numResidents;
+		this.numShifts = numShifts;
+		this.numQualifications = numQualifications;
+		this.minStaffForShift = minStaffForShift;
+		this.qualificationsOffered = qualificationsOffered;
+		this.qualificationsNeeded = qualificationsNeeded;
+		this.maxBlock = maxBlock;
+		this.restPeriod = restPeriod;
+		this.breakPeriod = breakPeriod;
+		this.minShifts = minShifts;
+	}
+
+	/*
+	 *  Takes a snapshot of everything the reader has loaded.
+	 */
+	public static ResidentsInstance read(ResidentsReader data) {
+		return new ResidentsInstance(data.getNumResidents(), data.getNumShifts(), data.getNumQuals(),
+				data.getMinResidents(), data.getQualsOfferedSparse(), data.getQualsNeededSparse(),
+				data.getMaxBlock(), data.getRestPeriod(), data.getBreakPeriod(), data.getMinShifts());
+	}
+
+	public int getNumResidents() {
+		return numResidents;
+	}
+
+	public int getNumShifts() {
+		return numShifts;
+	}
+
+	public int getNumQualifications() {
+		return numQualifications;
+	}
+
+	public int[] getMinStaffForShift() {
+		return minStaffForShift;
+	}
+
+	public SparseBinaryMatrix getQualificationsOffered() {
+		return qualificationsOffered;
+	}
+
+	public SparseBinaryMatrix getQualificationsNeeded() {
+		return qualificationsNeeded;
+	}
+
+	public int getMaxBlock() {
+		return maxBlock;
+	}
+
+	public int getRestPeriod() {
+		return restPeriod;
+	}
+
+	public int getBreakPeriod() {
+		return breakPeriod;
+	}
+
+	public int getMinShifts() {
+		return minShifts;
+	}
+}
@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.loop.lns.neighbors.IntNeighbor;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.util.tools.ArrayUtils;
+
+/*
+ *  Large Neighbourhood Search for the residents problem
+ *  An anytime alternative to the complete search, for rosters too large to prove optimal.
+ *
+ *  Once a first schedule is found, the search repeatedly keeps most of the incumbent schedule, frees a part of it
+ *  (a neighbourhood) and lets the solver repair that part under the usual sum and regular constraints, looking for
+ *  fewer shifts in total. Neighbourhoods take turns between:
+ *  	- random resident rows: whole schedules of a few residents,
+ *  	- a random window of consecutive shifts, for all residents,
+ *  	- the residents working over-staffed shifts, i.e. shifts with more staff than minStaffForShift: an incumbent
+ *  	  never has under-staffed shifts, and the over-staffed ones are where shifts can be taken away.
+ *  A repair gives up after a number of failures; every give-up makes the next neighbourhoods a little larger,
+ *  every improvement brings them back to their initial size.
+ *
+ *  The search runs for a fixed time budget and reports every improving schedule with the lower bound on the
+ *  total number of shifts, so that the optimality gap is known at all times. It stops early if the gap closes.
+ */
+
+public class ResidentsLNS {
+	private static final double INITIAL_SIZE = 0.2;		// fraction of the rows, or of the shifts, freed at first
+	private static final int FAILS_PER_REPAIR = 200;
+
+	/*
+	 *  Told about every improving schedule as it is found.
+	 */
+	public interface Progress {
+		void improved(ResidentsSolution incumbent, int lowerBound, long elapsedMillis);
+	}
+
+	private final ResidentsModel residentsModel;
+	private final int lowerBound;
+	private ResidentsSolution incumbent;
+
+	public ResidentsLNS(ResidentsInstance instance, long seed) {
+		residentsModel = ResidentsModel.build(instance, SearchStrategy.DOM_OVER_W_DEG);
+		Solver solver = residentsModel.getModel().getSolver();
+		int bound = Integer.MAX_VALUE; 								// no schedule at all if the root propagation fails
+		try {
+			solver.propagate();										// at least the bound posted by ResidentsModel
+			bound = residentsModel.getTotalNumberOfShifts().getLB();
+		}
+		catch (ContradictionException e) {
+			solver.getEngine().flush();
+		}
+		lowerBound = bound;
+		solver.setLNS(new Neighbourhoods(instance, residentsModel, new Random(seed)), new FailCounter(residentsModel.getModel(), FAILS_PER_REPAIR));
+	}
+
+	/*
+	 *  Searches for at most timeBudgetMillis, returning the best schedule found, or null if none was.
+	 */
+	public ResidentsSolution run(long timeBudgetMillis, Progress progress) {
+		Solver solver = residentsModel.getModel().getSolver();
+		long start = System.nanoTime();
+		if (lowerBound == Integer.MAX_VALUE) {
+			return null;
+		}
+		solver.limitTime(timeBudgetMillis);
+		solver.addStopCriterion(() -> incumbent != null && incumbent.getTotalNumberOfShifts() <= lowerBound);
+		solver.plugMonitor((IMonitorSolution) () -> {
+			incumbent = ResidentsSolution.of(residentsModel);
+			progress.improved(incumbent, lowerBound, (System.nanoTime() - start) / 1_000_000);
+		});
+		while (solver.solve()) {
+			// each solution is reported by the monitor
+		}
+		return incumbent;
+	}
+
+	public int getLowerBound() {
+		return lowerBound;
+	}
+
+	/*
+	 *  Whether the best schedule found is known to be optimal, i.e. the gap is closed.
+	 */
+	public boolean isOptimal() {
+		return incumbent != null && incumbent.getTotalNumberOfShifts() <= lowerBound;
+	}
+
+	/*
+	 *  The gap between a number of shifts and the lower bound, as a fraction of the number of shifts.
+	 */
+	public static double gap(int totalNumberOfShifts, int lowerBound) {
+		return totalNumberOfShifts == 0 ? 0 : (double) (totalNumberOfShifts - lowerBound) / totalNumberOfShifts;
+	}
+
+	/*
+	 *  The three neighbourhoods, taking turns. Variables are the cells of shiftsAssigned, row by row.
+	 */
+	private static class Neighbourhoods extends IntNeighbor {
+		private final int numResidents;
+		private final int numShifts;
+		private final int[] minStaffForShift;
+		private final Random random;
+		private final boolean[] free;
+		private double size = INITIAL_SIZE;
+		private int turn;
+
+		Neighbourhoods(ResidentsInstance instance, ResidentsModel residentsModel, Random random) {
+			super(ArrayUtils.flatten(residentsModel.getShiftsAssigned()));
+			this.numResidents = instance.getNumResidents();
+			this.numShifts = instance.getNumShifts();
+			this.minStaffForShift = instance.getMinStaffForShift();
+			this.random = random;
+			this.free = new boolean[numResidents * numShifts];
+		}
+
+		@Override
+		public void recordSolution() {
+			super.recordSolution();
+			size = INITIAL_SIZE;
+		}
+
+		@Override
+		public void restrictLess() {
+			size = Math.min(1, size * 1.1);
+		}
+
+		@Override
+		public void fixSomeVariables() throws ContradictionException {
+			Arrays.fill(free, false);
+			switch (turn++ % 3) {
+			case 0:
+				freeRows(randomRows());
+				break;
+			case 1:
+				int width = Math.max(1, (int) Math.ceil(size * numShifts));
+				int first = random.nextInt(numShifts - width + 1);
+				for (int resident = 0; resident < numResidents; resident++) {
+					for (int shift = first; shift < first + width; shift++) {
+						free[resident * numShifts + shift] = true;
+					}
+				}
+				break;
+			default:
+				freeRows(overStaffedRows());
+				break;
+			}
+			for (int cell = 0; cell < free.length; cell++) {
+				if (!free[cell]) {
+					freeze(cell);
+				}
+			}
+		}
+
+		private List<Integer> randomRows() {
+			List<Integer> rows = new ArrayList<>();
+			for (int resident = 0; resident < numResidents; resident++) {
+				rows.add(resident);
+			}
+			Collections.shuffle(rows, random);
+			return rows;
+		}
+
+		/*
+		 *  Residents working an over-staffed shift of the incumbent, in random order; all residents if there are none.
+		 */
+		private List<Integer> overStaffedRows() {
+			int[] staff = new int[numShifts];
+			for (int cell = 0; cell < values.length; cell++) {
+				staff[cell % numShifts] += values[cell];
+			}
+			List<Integer> rows = new ArrayList<>();
+			for (int resident : randomRows()) {
+				for (int shift = 0; shift < numShifts; shift++) {
+					if (values[resident * numShifts + shift] == 1 && staff[shift] > minStaffForShift[shift]) {
+						rows.add(resident);
+						break;
+					}
+				}
+			}
+			return rows.isEmpty() ? randomRows() : rows;
+		}
+
+		private void freeRows(List<Integer> candidates) {
+			int count = Math.min(candidates.size(), Math.max(1, (int) Math.ceil(size * numResidents)));
+			for (int resident : candidates.subList(0, count)) {
+				for (int shift = 0; shift < numShifts; shift++) {
+					free[resident * numShifts + shift] = true;
+				}
+			}
+		}
+	}
+}
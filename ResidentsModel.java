@@ -0,0 +1,333 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+
+/*
+ *  Residents model
+ *  Builds the Choco model of the residents scheduling problem described in Residents116365436
+ *  for one ResidentsInstance, and keeps hold of the variables needed to search it and read solutions back.
+ *
+ *  Every call to build() creates a fresh, independent Model, so the portfolio can give each worker its own copy.
+ */
+
+public class ResidentsModel {
+	private final ResidentsInstance instance;
+	private final Model model;
+	private final IntVar totalNumberOfShifts;					// The sum of all shifts assigned.
+	private final BoolVar[][] shiftsAssigned;					// A matrix of [residents][shift] with a boolean value of 0/1
+	private final BoolVar[][] staffAssigned;					// The transposed matrix, [shift][residents]
+	private final IntVar[] shiftsPerResident;					// Contains the sum of the total number of shifts per resident
+	private final IntVar[] searchVars;							// The decision variables handed to the search strategy
+	private final Constraint[] staffing;						// The minimum staff constraint of each shift
+	private final Constraint[] symmetryOfResident;				// The lex constraint each resident is in, if any
+	private final Map<String, Constraint[]> constraintGroups = new LinkedHashMap<>(); // Posted constraints by part of the model
+	private final int[] minStaffForShift;						// The minimum staff of each shift, as last set
+	private int lowerBound;										// Known lower bound on totalNumberOfShifts
+	private Constraint bound;									// totalNumberOfShifts >= lowerBound
+
+	/*
+	 *  Choices of how the model is built, all with sensible defaults.
+	 */
+	public static class Options {
+		private boolean mergeAutomata = true;
+		private boolean breakSymmetries = true;
+
+		/*
+		 *  Whether each row gets the product of the block and break automata as one regular constraint (the default),
+		 *  or one regular constraint for each.
+		 */
+		public Options mergeAutomata(boolean merge) {
+			this.mergeAutomata = merge;
+			return this;
+		}
+
+		/*
+		 *  Whether the schedules of interchangeable residents are put in lexicographic order (the default),
+		 *  so that the search does not go through every permutation of them.
+		 */
+		public Options breakSymmetries(boolean breakSymmetries) {
+			this.breakSymmetries = breakSymmetries;
+			return this;
+		}
+	}
+
+	private ResidentsModel(ResidentsInstance instance, Options options) {
+		this.instance = instance;
+		int numResidents = instance.getNumResidents(); 				// total number of residents-n
+		int numShifts = instance.getNumShifts();                    // total number of shifts-m
+		this.minStaffForShift = instance.getMinStaffForShift().clone(); // array of size m-min staff for each shift
+		SparseBinaryMatrix qualificationsOffered = instance.getQualificationsOffered(); // a qxm matrix of 0/1
+		SparseBinaryMatrix qualificationsNeeded = instance.getQualificationsNeeded();   // a nxq matrix of 0/1
+		int maxBlock = instance.getMaxBlock(); 						// the maximum length of a block of shifts
+		int restPeriod = instance.getRestPeriod(); 					// minimum free shifts required between blocks
+		int breakPeriod = instance.getBreakPeriod();				// must be a sequence of free shifts this long
+		int minShifts = instance.getMinShifts(); 					// minimum shifts to be scheduled per resident
+
+		/*------SOLVER---------------*/
+
+		model = new Model("The Residents Scheduling Problem");
+
+		/*------VARIABLES------------*/
+
+		int maxShifts = numShifts*numResidents; 									// Maximum possible number of shifts assigned
+	    totalNumberOfShifts = model.intVar(0, maxShifts);
+		shiftsAssigned = model.boolVarMatrix(numResidents,  numShifts);
+		shiftsPerResident = model.intVarArray(numResidents, 0, numShifts);
+
+		/*------CONSTRAINTS----------*/
+
+		/*
+		 *  Part 1 of assignment:
+		 *
+		 *  Constraint 1: Adding constraint that each resident must take at least one tutorial of the required type they need to qualify
+		 *  A clause over the shifts the qualification is offered on: any one of them will do.
+		 */
+
+	    for (int resident = 0; resident < numResidents; resident++) {
+	    	for (int qualification : qualificationsNeeded.row(resident)) {
+	    		int[] qualificationTimes = qualificationsOffered.row(qualification);
+	    		if (qualificationTimes.length > 0) {
+	    			model.addClausesBoolOrArrayEqualTrue(getCells(resident, qualificationTimes)); //Only one tutorial needs to be attended.
+	    		}
+	    	}
+	    }
+	    endGroup("tutorial");
+
+	    /*
+		 *  Constraint 2: Each resident works a minimum number of shifts.
+		 */
+
+	    for (int resident = 0; resident<numResidents; resident++) {
+	        model.sum(shiftsAssigned[resident], ">=", minShifts).post();
+	        model.sum(shiftsAssigned[resident],"=", shiftsPerResident[resident]).post(); // Storing the sum of each resident row, to calculate the overall scheduled shifts
+	    }
+	    endGroup("resident-sum");
+
+	    /*
+		 * Constraint 3: Adding constraint that there should be a minimum number of staff per shift.
+		 */
+
+	    staffAssigned = ArrayUtils.transpose(shiftsAssigned);
+	    staffing = new Constraint[numShifts];
+	    for (int shift = 0; shift<numShifts; shift++) {
+	        staffing[shift] = model.sum(staffAssigned[shift], ">=", minStaffForShift[shift]);
+	        staffing[shift].post();
+	    }
+	    endGroup("shift-sum");
+
+	    /*
+	     * Part 2 of assignment:
+	     *
+	     * Adding Constraint for a maximum block of shifts
+	     */
+
+	    // The automata are built directly and cached for these parameters (see ShiftAutomata)
+	    if (options.mergeAutomata) {
+	    	FiniteAutomaton shiftsAndBreak = ShiftAutomata.blocksAndBreak(maxBlock, restPeriod, breakPeriod);
+	    	for(int resident=0; resident< numResidents; resident++) { 		// Post a single automaton for each row.
+	    		model.regular(shiftsAssigned[resident],shiftsAndBreak).post();
+	    	}
+	    }
+	    else {
+	    	FiniteAutomaton shiftsAvailable = ShiftAutomata.blocks(maxBlock, restPeriod);	// Enabling an ending of 1's
+	    	FiniteAutomaton brakeToTake = ShiftAutomata.breakTaken(breakPeriod);
+	    	for(int resident=0; resident< numResidents; resident++) { 		// Post the regular expressions for each row.
+	    		model.regular(shiftsAssigned[resident],brakeToTake).post();
+	    		model.regular(shiftsAssigned[resident],shiftsAvailable).post();
+	    	}
+	    }
+	    endGroup("regular");
+	    /*
+	     * Symmetry breaking: residents needing the same qualifications are interchangeable, any schedule
+	     * stays a schedule when their rows are swapped. Only keep the one where their rows are in lexicographic order.
+	     */
+
+	    symmetryOfResident = new Constraint[numResidents];
+	    if (options.breakSymmetries) {
+	    	for (int[] residents : interchangeableResidents(instance)) {
+	    		IntVar[][] rows = new IntVar[residents.length][];
+	    		for (int i = 0; i < residents.length; i++) {
+	    			rows[i] = shiftsAssigned[residents[i]];
+	    		}
+	    		Constraint lexOrder = model.lexChainLessEq(rows);
+	    		lexOrder.post();
+	    		for (int resident : residents) {
+	    			symmetryOfResident[resident] = lexOrder;
+	    		}
+	    	}
+	    }
+	    endGroup("symmetry");
+	    searchVars = ArrayUtils.flatten(staffAssigned);
+	    model.sum(shiftsPerResident, "=", totalNumberOfShifts).post();	// Assigning totalNumberOfShifts equal to the sum of all column sums
+	    // A schedule reaching the lower bound is optimal: the next objective cut fails at once, no proof search needed.
+	    lowerBound = lowerBound(instance, minStaffForShift);
+	    bound = model.arithm(totalNumberOfShifts, ">=", lowerBound);
+	    bound.post();
+	    endGroup("objective");
+		model.setObjective(Model.MINIMIZE, totalNumberOfShifts);
+	}
+
+	/*
+	 *  Files every constraint posted since the previous group under the name, for SolverMetrics.
+	 */
+	private void endGroup(String name) {
+		Constraint[] posted = model.getCstrs();
+		int grouped = constraintGroups.values().stream().mapToInt(group -> group.length).sum();
+		constraintGroups.put(name, Arrays.copyOfRange(posted, grouped, posted.length));
+	}
+
+	/*
+	 *  Builds a fresh model of the instance, with the given search strategy installed on its solver.
+	 */
+	public static ResidentsModel build(ResidentsInstance instance, SearchStrategy strategy) {
+		return build(instance, strategy, new Options());
+	}
+
+	public static ResidentsModel build(ResidentsInstance instance, SearchStrategy strategy, Options options) {
+		ResidentsModel residentsModel = new ResidentsModel(instance, options);
+		strategy.apply(residentsModel.model.getSolver(), residentsModel.searchVars);
+		return residentsModel;
+	}
+
+	/*
+	 *  A lower bound on totalNumberOfShifts, the larger of:
+	 *  	- the shifts of each resident: at least minShifts, and at least the shifts of the tutorials offered once
+	 *  	  they need (after ResidentsPresolve, all their forced cells),
+	 *  	- the staff of each shift: at least minStaffForShift, and at least the residents forced to work it.
+	 */
+	public static int lowerBound(ResidentsInstance instance, int[] minStaffForShift) {
+		SparseBinaryMatrix qualificationsOffered = instance.getQualificationsOffered();
+		int[] forcedOnShift = new int[instance.getNumShifts()];
+		int byResidents = 0;
+		for (int resident = 0; resident < instance.getNumResidents(); resident++) {
+			BitSet forced = new BitSet(instance.getNumShifts());
+			for (int qualification : instance.getQualificationsNeeded().row(resident)) {
+				if (qualificationsOffered.rowLength(qualification) == 1) {
+					forced.set(qualificationsOffered.firstInRow(qualification));
+				}
+			}
+			forced.stream().forEach(shift -> forcedOnShift[shift]++);
+			byResidents += Math.max(instance.getMinShifts(), forced.cardinality());
+		}
+		int byShifts = 0;
+		for (int shift = 0; shift < instance.getNumShifts(); shift++) {
+			byShifts += Math.max(minStaffForShift[shift], forcedOnShift[shift]);
+		}
+		return Math.max(byResidents, byShifts);
+	}
+
+	/*
+	 *  The classes of two or more residents with identical rows in qualificationsNeeded, which the model treats
+	 *  exactly alike. Residents of a class are in increasing order.
+	 */
+	public static List<int[]> interchangeableResidents(ResidentsInstance instance) {
+		Map<String, List<Integer>> classes = new LinkedHashMap<>();
+		for (int resident = 0; resident < instance.getNumResidents(); resident++) {
+			String needs = Arrays.toString(instance.getQualificationsNeeded().row(resident));
+			classes.computeIfAbsent(needs, key -> new ArrayList<>()).add(resident);
+		}
+		List<int[]> interchangeable = new ArrayList<>();
+		for (List<Integer> members : classes.values()) {
+			if (members.size() > 1) {
+				interchangeable.add(members.stream().mapToInt(Integer::intValue).toArray());
+			}
+		}
+		return interchangeable;
+	}
+
+	public ResidentsInstance getInstance() {
+		return instance;
+	}
+
+	public Model getModel() {
+		return model;
+	}
+
+	public IntVar getTotalNumberOfShifts() {
+		return totalNumberOfShifts;
+	}
+
+	public BoolVar[][] getShiftsAssigned() {
+		return shiftsAssigned;
+	}
+
+	public BoolVar[][] getStaffAssigned() {
+		return staffAssigned;
+	}
+
+	/*
+	 *  The cells of the resident's row for the given shifts.
+	 */
+	public BoolVar[] getCells(int resident, int[] shifts) {
+		BoolVar[] cells = new BoolVar[shifts.length];
+		for (int i = 0; i < shifts.length; i++) {
+			cells[i] = shiftsAssigned[resident][shifts[i]];
+		}
+		return cells;
+	}
+
+	public IntVar[] getShiftsPerResident() {
+		return shiftsPerResident;
+	}
+
+	public IntVar[] getSearchVars() {
+		return searchVars;
+	}
+
+	/*
+	 *  The constraints of the model as built, by the part of the model they come from, in the order posted.
+	 */
+	public Map<String, Constraint[]> getConstraintGroups() {
+		return constraintGroups;
+	}
+
+	/*
+	 *  Replaces the minimum staff constraint of the shift, and the lower bound with it. The solver must not be in
+	 *  the middle of a search.
+	 */
+	public void setMinStaff(int shift, int minStaff) {
+		model.unpost(staffing[shift], bound);
+		minStaffForShift[shift] = minStaff;
+		staffing[shift] = model.sum(staffAssigned[shift], ">=", minStaff);
+		staffing[shift].post();
+		lowerBound = lowerBound(instance, minStaffForShift);
+		bound = model.arithm(totalNumberOfShifts, ">=", lowerBound);
+		bound.post();
+	}
+
+	/*
+	 *  The lower bound posted on totalNumberOfShifts (see lowerBound): a schedule with that many shifts is optimal.
+	 */
+	public int getLowerBound() {
+		return lowerBound;
+	}
+
+	/*
+	 *  Unposts the lex ordering constraint between the resident and the residents interchangeable with it, if any,
+	 *  once they are no longer alike. The solver must not be in the middle of a search.
+	 */
+	public void dropSymmetry(int resident) {
+		Constraint lexOrder = symmetryOfResident[resident];
+		if (lexOrder == null) {
+			return;
+		}
+		model.unpost(lexOrder);
+		for (int other = 0; other < symmetryOfResident.length; other++) {
+			if (symmetryOfResident[other] == lexOrder) {
+				symmetryOfResident[other] = null;
+			}
+		}
+	}
+}
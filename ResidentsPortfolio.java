@@ -0,0 +1,84 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ParallelPortfolio;
+
+/*
+ *  Residents portfolio
+ *  Races several search strategies on the same residents instance, one worker per strategy.
+ *
+ *  The best strategy changes from instance to instance (see the timings table in Residents116365436),
+ *  so rather than guessing, the model is built once per worker and every worker searches it with a different
+ *  strategy on its own core. Choco's ParallelPortfolio shares each improving value of totalNumberOfShifts with
+ *  the other workers as soon as it is found, and stops them all as soon as one worker proves optimality.
+ */
+
+public class ResidentsPortfolio {
+
+	/*
+	 *  The strategies raced by default, in order of preference: when there are fewer cores than strategies,
+	 *  the first ones are kept. domOverWDegSearch comes first as it is the single-threaded default.
+	 */
+	public static final SearchStrategy[] DEFAULT_STRATEGIES = {
+			SearchStrategy.DOM_OVER_W_DEG,
+			SearchStrategy.MIN_DOM_LB,
+			SearchStrategy.INPUT_ORDER_LB,
+			SearchStrategy.ACTIVITY_BASED,
+			SearchStrategy.IMPACT_BASED,
+			SearchStrategy.INPUT_ORDER_UB
+	};
+
+	private final ParallelPortfolio portfolio = new ParallelPortfolio(false); // false: keep our own strategies
+	private final List<ResidentsModel> workers = new ArrayList<>();
+
+	/*
+	 *  Builds one model per worker, one worker per strategy, using at most numWorkers workers.
+	 */
+	public ResidentsPortfolio(ResidentsInstance instance, SearchStrategy[] strategies, int numWorkers) {
+		int size = Math.min(strategies.length, numWorkers);
+		if (size < 1) {
+			throw new IllegalArgumentException("A portfolio needs at least one worker");
+		}
+		for (int worker = 0; worker < size; worker++) {
+			ResidentsModel residentsModel = ResidentsModel.build(instance, strategies[worker]);
+			residentsModel.getModel().setName(residentsModel.getModel().getName() + " [" + strategies[worker] + "]");
+			workers.add(residentsModel);
+			portfolio.addModel(residentsModel.getModel());
+		}
+	}
+
+	/*
+	 *  A portfolio of the default strategies, with one worker per available core.
+	 */
+	public ResidentsPortfolio(ResidentsInstance instance) {
+		this(instance, DEFAULT_STRATEGIES, Runtime.getRuntime().availableProcessors());
+	}
+
+	/*
+	 *  Runs all workers until one of them finds an improving solution, returning false once the
+	 *  search is over (optimality proved, or no solution exists).
+	 */
+	public boolean solve() {
+		return portfolio.solve();
+	}
+
+	/*
+	 *  The worker holding the last solution found, to read the schedule from.
+	 */
+	public ResidentsModel getBestWorker() {
+		Model best = portfolio.getBestModel();
+		for (ResidentsModel worker : workers) {
+			if (worker.getModel() == best) {
+				return worker;
+			}
+		}
+		return null;
+	}
+
+	public List<ResidentsModel> getWorkers() {
+		return workers;
+	}
+}
@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
+
+/*
+ *  Residents presolve
+ *  Reduces a ResidentsInstance before the model is built, and finds out early when there is no schedule at all.
+ *
+ *  Cells the data already forces are fixed:
+ *  	- a qualification offered on a single shift can only be attended on that shift,
+ *  	- a shift needing every resident is worked by all of them.
+ *  Each resident then only keeps the qualifications whose tutorial is not settled already: a qualification is
+ *  dropped if one of its shifts is forced for the resident, or if it is offered on every shift of another one
+ *  the resident needs (attending that one attends this one too). Qualifications offered on the same shifts are one.
+ *
+ *  The reduced instance has the same residents, shifts and rules, with the forced cells written as qualifications
+ *  offered on that shift alone; its schedules are schedules of the original instance as they are, so there is
+ *  nothing to map back. Residents whose needs become the same are interchangeable in ResidentsModel.
+ *
+ *  There is no schedule, and the reduced instance is null, when a shift needs more staff than there are
+ *  residents, or a resident cannot work the shifts forced on them within maxBlock, restPeriod and breakPeriod.
+ */
+
+public class ResidentsPresolve {
+	private final ResidentsInstance reduced;			// null when there is no schedule
+	private final String reason;						// why there is no schedule, or null
+	private final int numForced;						// cells fixed to 1
+
+	private ResidentsPresolve(ResidentsInstance reduced, String reason, int numForced) {
+		this.reduced = reduced;
+		this.reason = reason;
+		this.numForced = numForced;
+	}
+
+	public static ResidentsPresolve reduce(ResidentsInstance instance) {
+		int numResidents = instance.getNumResidents();
+		int numShifts = instance.getNumShifts();
+		int[] minStaffForShift = instance.getMinStaffForShift();
+		SparseBinaryMatrix qualificationsOffered = instance.getQualificationsOffered();
+		SparseBinaryMatrix qualificationsNeeded = instance.getQualificationsNeeded();
+
+		if (instance.getMinShifts() > numShifts) {
+			return infeasible("every resident must work " + instance.getMinShifts() + " shifts out of " + numShifts);
+		}
+		BitSet[] forced = new BitSet[numResidents];
+		for (int resident = 0; resident < numResidents; resident++) {
+			forced[resident] = new BitSet(numShifts);
+		}
+		for (int shift = 0; shift < numShifts; shift++) {
+			if (minStaffForShift[shift] > numResidents) {
+				return infeasible("shift " + shift + " needs " + minStaffForShift[shift] + " residents out of " + numResidents);
+			}
+			if (minStaffForShift[shift] == numResidents) {
+				for (int resident = 0; resident < numResidents; resident++) {
+					forced[resident].set(shift);
+				}
+			}
+		}
+		for (int resident = 0; resident < numResidents; resident++) {
+			for (int qualification : qualificationsNeeded.row(resident)) {
+				if (qualificationsOffered.rowLength(qualification) == 1) {
+					forced[resident].set(qualificationsOffered.firstInRow(qualification));
+				}
+			}
+		}
+
+		// The shifts of the tutorials each resident still has to choose from, without dominated ones
+		List<List<BitSet>> needs = new ArrayList<>();
+		for (int resident = 0; resident < numResidents; resident++) {
+			List<BitSet> candidates = new ArrayList<>();
+			for (int qualification : qualificationsNeeded.row(resident)) {
+				BitSet shifts = qualificationsOffered.rowBits(qualification);
+				if (shifts.cardinality() > 1 && !shifts.intersects(forced[resident])) {
+					candidates.add(shifts);
+				}
+			}
+			candidates = new ArrayList<>(new LinkedHashSet<>(candidates));
+			candidates.sort(Comparator.comparingInt(BitSet::cardinality));
+			List<BitSet> kept = new ArrayList<>();
+			for (BitSet shifts : candidates) {
+				if (kept.stream().noneMatch(smaller -> isSubset(smaller, shifts))) {
+					kept.add(shifts);
+				}
+			}
+			needs.add(kept);
+		}
+
+		FiniteAutomaton automaton = ShiftAutomata.blocksAndBreak(instance.getMaxBlock(), instance.getRestPeriod(), instance.getBreakPeriod());
+		int numForced = 0;
+		for (int resident = 0; resident < numResidents; resident++) {
+			if (!ShiftAutomata.acceptsSome(automaton, numShifts, forced[resident])) {
+				return infeasible("resident " + resident + " cannot work all of shifts " + forced[resident]);
+			}
+			numForced += forced[resident].cardinality();
+		}
+
+		// Qualifications of the reduced instance: one per distinct set of shifts, forced cells as single shifts
+		Map<BitSet, Integer> qualifications = new LinkedHashMap<>();
+		int[][] needed = new int[numResidents][];
+		for (int resident = 0; resident < numResidents; resident++) {
+			List<BitSet> shiftSets = new ArrayList<>(needs.get(resident));
+			for (int shift = forced[resident].nextSetBit(0); shift >= 0; shift = forced[resident].nextSetBit(shift + 1)) {
+				BitSet single = new BitSet(numShifts);
+				single.set(shift);
+				shiftSets.add(single);
+			}
+			needed[resident] = new int[shiftSets.size()];
+			for (int i = 0; i < shiftSets.size(); i++) {
+				needed[resident][i] = qualifications.computeIfAbsent(shiftSets.get(i), key -> qualifications.size());
+			}
+			Arrays.sort(needed[resident]);
+		}
+		int[][] offered = new int[qualifications.size()][];
+		for (Map.Entry<BitSet, Integer> qualification : qualifications.entrySet()) {
+			offered[qualification.getValue()] = qualification.getKey().stream().toArray();
+		}
+		ResidentsInstance reduced = new ResidentsInstance(numResidents, numShifts, offered.length, minStaffForShift,
+				SparseBinaryMatrix.fromRows(offered, numShifts), SparseBinaryMatrix.fromRows(needed, offered.length),
+				instance.getMaxBlock(), instance.getRestPeriod(), instance.getBreakPeriod(), instance.getMinShifts());
+		return new ResidentsPresolve(reduced, null, numForced);
+	}
+
+	private static ResidentsPresolve infeasible(String reason) {
+		return new ResidentsPresolve(null, reason, 0);
+	}
+
+	private static boolean isSubset(BitSet subset, BitSet set) {
+		BitSet outside = (BitSet) subset.clone();
+		outside.andNot(set);
+		return outside.isEmpty();
+	}
+
+	public boolean isInfeasible() {
+		return reduced == null;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public ResidentsInstance getReduced() {
+		return reduced;
+	}
+
+	public int getNumForced() {
+		return numForced;
+	}
+}
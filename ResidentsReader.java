@@ -0,0 +1,119 @@
+import java.io.IOException;
+
+/*
+ *  Residents reader
+ *  Reads a residents scheduling problem from file, see Residents116365436.
+ *
+ *  The file is a series of whitespace separated integers, in this order:
+ *  n	m	q								(number of residents, shifts and qualifications)
+ *  r0	r1	...	r(m-1)						(minimum number of residents on each shift)
+ *  o00	o01	...	o0(m-1)						(a qxm matrix of 0/1, oij = 1 means qualification i is offered on shift j)
+ *  ...
+ *  o(q-1)0	...	o(q-1)(m-1)
+ *  e00	e01	...	e0(q-1)						(a nxq matrix of 0/1, eki = 1 means resident k needs qualification i)
+ *  ...
+ *  e(n-1)0	...	e(n-1)(q-1)
+ *  maxBlock	restPeriod	breakPeriod	minShifts
+ *
+ *  The file is read through a memory-mapped InstanceScanner, and the two 0/1 matrices are kept as SparseBinaryMatrix,
+ *  so memory grows with the number of 1s in them rather than with qxm and nxq. getQualsOffered() and getQualsNeeded()
+ *  still hand back the full matrices, built on demand, for the code that wants them.
+ */
+
+public class ResidentsReader {
+	private final int numResidents;
+	private final int numShifts;
+	private final int numQuals;
+	private final int[] minResidents;
+	private final SparseBinaryMatrix qualsOffered;		// q x m
+	private final SparseBinaryMatrix qualsNeeded;		// n x q
+	private final int maxBlock;
+	private final int restPeriod;
+	private final int breakPeriod;
+	private final int minShifts;
+
+	public ResidentsReader(String file) throws IOException {
+		try (InstanceScanner in = new InstanceScanner(file)) {
+			numResidents = in.nextInt();
+			numShifts = in.nextInt();
+			numQuals = in.nextInt();
+			minResidents = new int[numShifts];
+			for (int shift = 0; shift < numShifts; shift++) {
+				minResidents[shift] = in.nextInt();
+			}
+			qualsOffered = readMatrix(in, numQuals, numShifts);
+			qualsNeeded = readMatrix(in, numResidents, numQuals);
+			maxBlock = in.nextInt();
+			restPeriod = in.nextInt();
+			breakPeriod = in.nextInt();
+			minShifts = in.nextInt();
+		}
+	}
+
+	private static SparseBinaryMatrix readMatrix(InstanceScanner in, int numRows, int numColumns) throws IOException {
+		SparseBinaryMatrix.Builder builder = new SparseBinaryMatrix.Builder(numRows, numColumns);
+		for (int row = 0; row < numRows; row++) {
+			for (int column = 0; column < numColumns; column++) {
+				if (in.nextBit()) {
+					builder.set(column);
+				}
+			}
+			builder.endRow();
+		}
+		return builder.build();
+	}
+
+	public int getNumResidents() {
+		return numResidents;
+	}
+
+	public int getNumShifts() {
+		return numShifts;
+	}
+
+	public int getNumQuals() {
+		return numQuals;
+	}
+
+	public int[] getMinResidents() {
+		return minResidents;
+	}
+
+	public SparseBinaryMatrix getQualsOfferedSparse() {
+		return qualsOffered;
+	}
+
+	public SparseBinaryMatrix getQualsNeededSparse() {
+		return qualsNeeded;
+	}
+
+	/*
+	 *  The qxm matrix in full: takes q x m ints, prefer getQualsOfferedSparse().
+	 */
+	public int[][] getQualsOffered() {
+		return qualsOffered.toDense();
+	}
+
+	/*
+	 *  The nxq matrix in full: takes n x q ints, prefer getQualsNeededSparse().
+	 */
+	public int[][] getQualsNeeded() {
+		return qualsNeeded.toDense();
+	}
+
+	public int getMaxBlock() {
+		return maxBlock;
+	}
+
+	public int getRestPeriod() {
+		return restPeriod;
+	}
+
+	public int getBreakPeriod() {
+		return breakPeriod;
+	}
+
+	public int getMinShifts() {
+		return minShifts;
+	}
+}
@@ -0,0 +1,78 @@
+import org.chocosolver.solver.variables.IntVar;
+
+/*
+ *  Residents solution
+ *  A snapshot of one schedule of a ResidentsModel, taken as soon as the solver finds it.
+ */
+
+public class ResidentsSolution implements SolutionSink.Printable {
+	private final int[][] shiftsAssigned;		// [resident][shift], 1 means resident is working that shift
+	private final int totalNumberOfShifts;
+
+	public ResidentsSolution(int[][] shiftsAssigned, int totalNumberOfShifts) {
+		this.shiftsAssigned = shiftsAssigned;
+		this.totalNumberOfShifts = totalNumberOfShifts;
+	}
+
+	/*
+	 *  Reads the current values of the model's variables; only valid right after the solver has found a solution.
+	 */
+	public static ResidentsSolution of(ResidentsModel residentsModel) {
+		IntVar[][] shiftsAssigned = residentsModel.getShiftsAssigned();
+		int[][] values = new int[shiftsAssigned.length][];
+		for (int resident = 0; resident < shiftsAssigned.length; resident++) {
+			values[resident] = new int[shiftsAssigned[resident].length];
+			for (int shift = 0; shift < values[resident].length; shift++) {
+				values[resident][shift] = shiftsAssigned[resident][shift].getValue();
+			}
+		}
+		return new ResidentsSolution(values, residentsModel.getTotalNumberOfShifts().getValue());
+	}
+
+	public int[][] getShiftsAssigned() {
+		return shiftsAssigned;
+	}
+
+	public int getTotalNumberOfShifts() {
+		return totalNumberOfShifts;
+	}
+
+	@Override
+	public int getObjective() {
+		return totalNumberOfShifts;
+	}
+
+	@Override
+	public void appendText(StringBuilder out) {
+		int numShifts = shiftsAssigned.length == 0 ? 0 : shiftsAssigned[0].length;
+		out.append("				Shifts\n\n");
+		out.append("	");
+		StringBuilder lengthOfBar = new StringBuilder("---------");
+		for (int t = 0; t < numShifts; t++) {
+			out.append("	").append(t).append(' ');
+			lengthOfBar.append("--------");
+		}
+		out.append('\n').append(lengthOfBar).append('\n');
+		for (int residents = 0; residents < shiftsAssigned.length; residents++) { // Number of residents
+			out.append("resident_").append(residents).append(": 	");
+			for (int shiftNum = 0; shiftNum < numShifts; shiftNum++) {
+				out.append(shiftsAssigned[residents][shiftNum]).append('	');
+			}
+			out.append('\n');
+		}
+		out.append("Total amount of shifts: ").append(totalNumberOfShifts).append("\n   ");
+	}
+
+	@Override
+	public void appendJson(StringBuilder out) {
+		out.append("\"shifts\":[");
+		for (int resident = 0; resident < shiftsAssigned.length; resident++) {
+			out.append(resident == 0 ? "[" : ",[");
+			for (int shift = 0; shift < shiftsAssigned[resident].length; shift++) {
+				out.append(shift == 0 ? "" : ",").append(shiftsAssigned[resident][shift]);
+			}
+			out.append(']');
+		}
+		out.append(']');
+	}
+}
@@ -0,0 +1,260 @@
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+
+/*
+ *  Rolling horizon
+ *  Schedules a long roster as a sequence of overlapping windows of a few shifts each, so that the time and memory
+ *  needed grow with the number of shifts instead of the search over the whole roster.
+ *
+ *  Each window [from, to) is a small model of its own, solved for the fewest shifts within a time limit. Only the
+ *  first step shifts of its schedule are kept; the next window starts there and sees the rest of the roster again.
+ *  What the kept shifts imply is carried over to the next window:
+ *  	- each resident's state in the automaton of ShiftAutomata.blocksAndBreak, i.e. the length of the block
+ *  	  being worked, the rest still owed and whether the break was taken: each row of the window must be read by
+ *  	  the automaton from that state, and end in a state from which the rest of the roster can still be completed;
+ *  	- the shifts each resident has worked so far: a window must bring each resident up to its share of
+ *  	  minShifts at its end, ceil(minShifts * to / numShifts), and the last window to minShifts itself. A window
+ *  	  with no schedule under these shares is solved again without them;
+ *  	- the tutorials already attended: a tutorial still needed gets its clause in the first window holding every
+ *  	  shift it is still offered on.
+ *  A window with no schedule at all is widened to look further ahead and, if that fails too, solved again together
+ *  with the window before it: the shifts kept from that one window are then changed, never any earlier. Each window
+ *  meets the staff needed on all its shifts, so the stitched roster meets every rule of ResidentsModel. It is not
+ *  proved to have the fewest shifts, and a window may have no schedule although the roster has one: solve() then
+ *  returns null.
+ */
+
+public class RollingHorizon {
+	private final ResidentsInstance instance;
+	private final int window;									// shifts in a window
+	private final int step;										// shifts kept from each window
+	private final FiniteAutomaton automaton;
+	private final BitSet[] finishing;							// states that can end the roster in that many shifts
+	private final int[] mostWork;								// most shifts a resident can work in that many shifts
+	private final Map<String, FiniteAutomaton> resumed = new HashMap<>();
+	private String timeLimit = "5s";							// for each window
+	private int numWindows;
+	private int numRelaxed;										// windows only solved without the shares of minShifts
+	private int numWidened;										// windows made longer to find a schedule
+	private int numBacktracked;									// windows solved again with the one before
+	private int failedAt = -1;									// first shift of the window with no schedule
+
+	public RollingHorizon(ResidentsInstance instance, int window, int step) {
+		if (step < 1 || step > window) {
+			throw new IllegalArgumentException("The step must be between 1 and the window, " + window + ", not " + step);
+		}
+		this.instance = instance;
+		this.window = window;
+		this.step = step;
+		this.automaton = ShiftAutomata.blocksAndBreak(instance.getMaxBlock(), instance.getRestPeriod(), instance.getBreakPeriod());
+		int[][] mostWorkFrom = ShiftAutomata.mostWork(automaton, instance.getNumShifts());
+		this.finishing = new BitSet[mostWorkFrom.length];
+		this.mostWork = new int[mostWorkFrom.length];
+		for (int length = 0; length < mostWorkFrom.length; length++) {
+			finishing[length] = new BitSet();
+			for (int state = 0; state < mostWorkFrom[length].length; state++) {
+				if (mostWorkFrom[length][state] >= 0) {
+					finishing[length].set(state);
+				}
+				mostWork[length] = Math.max(mostWork[length], mostWorkFrom[length][state]);
+			}
+		}
+	}
+
+	/*
+	 *  Windows of the given length, keeping their first half.
+	 */
+	public RollingHorizon(ResidentsInstance instance, int window) {
+		this(instance, window, Math.max(1, window / 2));
+	}
+
+	/*
+	 *  The time limit of each window, e.g. "10s".
+	 */
+	public void setTimeLimit(String timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/*
+	 *  The stitched roster, or null if some window has no schedule.
+	 */
+	public ResidentsSolution solve() {
+		int numResidents = instance.getNumResidents();
+		int numShifts = instance.getNumShifts();
+		SparseBinaryMatrix qualificationsNeeded = instance.getQualificationsNeeded();
+		int[][] schedule = new int[numResidents][numShifts];
+		int[] state = new int[numResidents];
+		int[] worked = new int[numResidents];
+		boolean[][] attended = new boolean[numResidents][];
+		for (int resident = 0; resident < numResidents; resident++) {
+			state[resident] = automaton.getInitialState();
+			attended[resident] = new boolean[qualificationsNeeded.rowLength(resident)];
+		}
+
+		int previous = -1;								// start of the previous window, whose shifts can be undone once
+		int[] previousState = null;
+		int[] previousWorked = null;
+		boolean[][] previousAttended = null;
+		for (int from = 0; from < numShifts; ) {
+			int to = Math.min(from + window, numShifts);
+			int[][] cells = solveWindow(from, to, state, worked, attended, true);
+			if (cells == null && to < numShifts) {
+				cells = solveWindow(from, to, state, worked, attended, false);
+				if (cells != null) {
+					numRelaxed++;
+				}
+			}
+			while (cells == null && to < numShifts) { 	// look further ahead, the window's end may have been the trouble
+				to = Math.min(to + window, numShifts);
+				cells = solveWindow(from, to, state, worked, attended, false);
+				numWidened++;
+			}
+			if (cells == null && previous >= 0) { 		// or the shifts kept from the previous window: solve both as one
+				from = previous;
+				state = previousState;
+				worked = previousWorked;
+				attended = previousAttended;
+				cells = solveWindow(from, to, state, worked, attended, false);
+				numBacktracked++;
+			}
+			numWindows++;
+			if (cells == null) {
+				failedAt = from;
+				return null;
+			}
+			int kept = to == numShifts ? to : from + step;
+			previous = from;
+			previousState = state.clone();
+			previousWorked = worked.clone();
+			previousAttended = new boolean[numResidents][];
+			for (int resident = 0; resident < numResidents; resident++) {
+				previousAttended[resident] = attended[resident].clone();
+			}
+			for (int resident = 0; resident < numResidents; resident++) {
+				System.arraycopy(cells[resident], 0, schedule[resident], from, kept - from);
+				state[resident] = ShiftAutomata.run(automaton, state[resident], schedule[resident], from, kept);
+				for (int shift = from; shift < kept; shift++) {
+					worked[resident] += schedule[resident][shift];
+				}
+				int[] needed = qualificationsNeeded.row(resident);
+				for (int i = 0; i < needed.length; i++) {
+					for (int shift : instance.getQualificationsOffered().row(needed[i])) {
+						attended[resident][i] |= shift >= from && shift < kept && schedule[resident][shift] == 1;
+					}
+				}
+			}
+			from = kept;
+		}
+		int total = 0;
+		for (int count : worked) {
+			total += count;
+		}
+		return new ResidentsSolution(schedule, total);
+	}
+
+	/*
+	 *  The best schedule of shifts [from, to) found within the time limit, by resident, or null if there is none.
+	 */
+	private int[][] solveWindow(int from, int to, int[] state, int[] worked, boolean[][] attended, boolean shares) {
+		int numResidents = instance.getNumResidents();
+		int numShifts = instance.getNumShifts();
+		int length = to - from;
+		SparseBinaryMatrix qualificationsOffered = instance.getQualificationsOffered();
+		SparseBinaryMatrix qualificationsNeeded = instance.getQualificationsNeeded();
+
+		Model model = new Model("Residents, shifts " + from + " to " + (to - 1));
+		BoolVar[][] shiftsAssigned = model.boolVarMatrix(numResidents, length);
+		BoolVar[][] staffAssigned = ArrayUtils.transpose(shiftsAssigned);
+		IntVar total = model.intVar(0, numResidents * length);
+
+		for (int resident = 0; resident < numResidents; resident++) {
+			int[] needed = qualificationsNeeded.row(resident);
+			for (int i = 0; i < needed.length; i++) {
+				int[] offered = qualificationsOffered.row(needed[i]);
+				if (attended[resident][i] || offered.length == 0 || offered[offered.length - 1] >= to) {
+					continue;
+				}
+				int first = 0;
+				while (first < offered.length && offered[first] < from) {
+					first++;
+				}
+				if (first == offered.length) {
+					return null; 			// only offered on shifts kept without it
+				}
+				BoolVar[] cells = new BoolVar[offered.length - first];
+				for (int j = first; j < offered.length; j++) {
+					cells[j - first] = shiftsAssigned[resident][offered[j] - from];
+				}
+				model.addClausesBoolOrArrayEqualTrue(cells);
+			}
+			// What the rest of the roster cannot make up for is due now, and with shares at least the share
+			int share = instance.getMinShifts() - mostWork[numShifts - to];
+			if (shares) {
+				share = Math.max(share, (int) (((long) instance.getMinShifts() * to + numShifts - 1) / numShifts));
+			}
+			model.sum(shiftsAssigned[resident], ">=", share - worked[resident]).post();
+			model.regular(shiftsAssigned[resident], resumed(state[resident], finishing[numShifts - to])).post();
+		}
+		for (int shift = from; shift < to; shift++) {
+			model.sum(staffAssigned[shift - from], ">=", instance.getMinStaffForShift()[shift]).post();
+		}
+		model.sum(ArrayUtils.flatten(shiftsAssigned), "=", total).post();
+		model.setObjective(Model.MINIMIZE, total);
+
+		Solver solver = model.getSolver();
+		solver.setSearch(Search.domOverWDegSearch(ArrayUtils.flatten(staffAssigned)));
+		solver.limitTime(timeLimit);
+		int[][] best = null;
+		while (solver.solve()) {
+			best = new int[numResidents][length];
+			for (int resident = 0; resident < numResidents; resident++) {
+				for (int shift = 0; shift < length; shift++) {
+					best[resident][shift] = shiftsAssigned[resident][shift].getValue();
+				}
+			}
+		}
+		return best;
+	}
+
+	/*
+	 *  The automaton read from the given state and accepting in the given states, kept as windows repeat them.
+	 */
+	private FiniteAutomaton resumed(int initialState, BitSet finalStates) {
+		return resumed.computeIfAbsent(initialState + " " + finalStates,
+				key -> ShiftAutomata.resumed(automaton, initialState, finalStates));
+	}
+
+	public int getNumWindows() {
+		return numWindows;
+	}
+
+	public int getNumRelaxed() {
+		return numRelaxed;
+	}
+
+	public int getNumWidened() {
+		return numWidened;
+	}
+
+	public int getNumBacktracked() {
+		return numBacktracked;
+	}
+
+	/*
+	 *  The first shift of the window that had no schedule, or -1.
+	 */
+	public int getFailedAt() {
+		return failedAt;
+	}
+}
@@ -0,0 +1,46 @@
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.variables.ImpactBased;
+import org.chocosolver.solver.variables.IntVar;
+
+/*
+ *  The search strategies compared in the timings table of Residents116365436.
+ *
+ *  Each constant knows how to install itself on a solver for a given array of decision variables,
+ *  so that the same model can be solved (or raced, see ResidentsPortfolio) under each of them.
+ */
+
+public enum SearchStrategy {
+	DEFAULT, 				// leaves the solver's default search in place
+	DOM_OVER_W_DEG,
+	MIN_DOM_LB,
+	INPUT_ORDER_LB,
+	INPUT_ORDER_UB,
+	ACTIVITY_BASED,
+	IMPACT_BASED;
+
+	public void apply(Solver solver, IntVar[] searchVars) {
+		switch (this) {
+		case DEFAULT:
+			break;
+		case DOM_OVER_W_DEG:
+			solver.setSearch(Search.domOverWDegSearch(searchVars));
+			break;
+		case MIN_DOM_LB:
+			solver.setSearch(Search.minDomLBSearch(searchVars));
+			break;
+		case INPUT_ORDER_LB:
+			solver.setSearch(Search.inputOrderLBSearch(searchVars));
+			break;
+		case INPUT_ORDER_UB:
+			solver.setSearch(Search.inputOrderUBSearch(searchVars));
+			break;
+		case ACTIVITY_BASED:
+			solver.setSearch(Search.activityBasedSearch(searchVars));
+			break;
+		case IMPACT_BASED:
+			solver.setSearch(new ImpactBased(searchVars, 2, 3, 10, 0, false)); // choco's default alpha, split and node impact
+			break;
+		}
+	}
+}
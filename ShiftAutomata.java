@@ -0,0 +1,286 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
+import org.chocosolver.solver.constraints.nary.automata.FA.IAutomaton;
+
+/*
+ *  Shift automata
+ *  The finite automata posted with "regular" on every row of shiftsAssigned, built state by state.
+ *
+ *  They used to be written as regular expressions, concatenated in loops and compiled by Choco, which goes through
+ *  an NFA and a determinisation whose size grows quickly with maxBlock, restPeriod and breakPeriod; on large
+ *  parameters that compile was most of the model building time. The minimal DFAs are simple enough to write down
+ *  directly, and they only depend on the three parameters, so each one is built once and cached.
+ *
+ *  What is cached is a plain transition table, and each call hands out a new FiniteAutomaton copied from it: Choco's
+ *  automata are not safe to share between threads, as PropRegular reads transitions through a set the automaton
+ *  keeps and refills on every call, and models are built on several threads at once (BatchSolver, SolverDaemon).
+ */
+
+public class ShiftAutomata {
+	private static final int FREE = 0;		// symbol of a shift off
+	private static final int WORK = 1;		// symbol of a shift worked
+
+	private static final Map<String, Transitions> CACHE = new ConcurrentHashMap<>();
+
+	private ShiftAutomata() {
+	}
+
+	/*
+	 *  Blocks of at most maxBlock shifts, each followed by at least restPeriod free shifts. Same language as the
+	 *  original expression ((<0>|<1>{k}<0>{restPeriod})*)(<0>|<1>{k}), k = 1..maxBlock: in particular a rota
+	 *  may end in the middle of a block, but a rest period it ends in must be followed by one more free shift.
+	 */
+	public static FiniteAutomaton blocks(int maxBlock, int restPeriod) {
+		return CACHE.computeIfAbsent("blocks " + maxBlock + "/" + restPeriod,
+				key -> new Transitions(buildBlocks(maxBlock, restPeriod))).toAutomaton();
+	}
+
+	/*
+	 *  At least one sequence of breakPeriod free shifts somewhere in the rota, i.e. ((<0>|<1>)*<0>{breakPeriod}(<0>|<1>)*).
+	 */
+	public static FiniteAutomaton breakTaken(int breakPeriod) {
+		return CACHE.computeIfAbsent("break " + breakPeriod, key -> new Transitions(buildBreak(breakPeriod))).toAutomaton();
+	}
+
+	/*
+	 *  Both of the above in a single automaton (their product), so each row needs one regular constraint instead of two.
+	 */
+	public static FiniteAutomaton blocksAndBreak(int maxBlock, int restPeriod, int breakPeriod) {
+		FiniteAutomaton blocks = blocks(maxBlock, restPeriod);		// not from within computeIfAbsent on the same cache
+		FiniteAutomaton breakTaken = breakTaken(breakPeriod);
+		return CACHE.computeIfAbsent("product " + maxBlock + "/" + restPeriod + "/" + breakPeriod,
+				key -> new Transitions(product(blocks, breakTaken))).toAutomaton();
+	}
+
+	/*
+	 *  Whether the automaton accepts some rota of the given length that works every shift in mustWork.
+	 */
+	public static boolean acceptsSome(FiniteAutomaton automaton, int length, BitSet mustWork) {
+		BitSet states = new BitSet(automaton.getNbStates());
+		states.set(automaton.getInitialState());
+		for (int shift = 0; shift < length && !states.isEmpty(); shift++) {
+			BitSet next = new BitSet(automaton.getNbStates());
+			for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+				for (int symbol = mustWork.get(shift) ? WORK : FREE; symbol <= WORK; symbol++) {
+					int target = delta(automaton, state, symbol);
+					if (target >= 0) {
+						next.set(target);
+					}
+				}
+			}
+			states = next;
+		}
+		for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+			if (automaton.isFinal(state)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 *  The state reached by reading shifts[from..to) from the given state, or -1 if there is no such path.
+	 */
+	public static int run(FiniteAutomaton automaton, int state, int[] shifts, int from, int to) {
+		for (int shift = from; shift < to && state >= 0; shift++) {
+			state = delta(automaton, state, shifts[shift]);
+		}
+		return state;
+	}
+
+	/*
+	 *  mostWork[length][state]: the most shifts worked by a rota of exactly that length read from the state and ending
+	 *  in a final state, or -1 if there is no such rota, for every length up to maxLength.
+	 */
+	public static int[][] mostWork(FiniteAutomaton automaton, int maxLength) {
+		int numStates = automaton.getNbStates();
+		int[][] mostWork = new int[maxLength + 1][numStates];
+		for (int state = 0; state < numStates; state++) {
+			mostWork[0][state] = automaton.isFinal(state) ? 0 : -1;
+		}
+		for (int length = 1; length <= maxLength; length++) {
+			for (int state = 0; state < numStates; state++) {
+				mostWork[length][state] = -1;
+				for (int symbol = FREE; symbol <= WORK; symbol++) {
+					int next = delta(automaton, state, symbol);
+					if (next >= 0 && mostWork[length - 1][next] >= 0) {
+						mostWork[length][state] = Math.max(mostWork[length][state], mostWork[length - 1][next] + symbol);
+					}
+				}
+			}
+		}
+		return mostWork;
+	}
+
+	/*
+	 *  A copy of the automaton starting in the given state and accepting in the given states, i.e. the rules for the
+	 *  rest of a rota whose beginning is known. Not cached: callers may keep the ones they reuse.
+	 */
+	public static FiniteAutomaton resumed(FiniteAutomaton automaton, int initialState, BitSet finalStates) {
+		FiniteAutomaton copy = new FiniteAutomaton();
+		for (int state = 0; state < automaton.getNbStates(); state++) {
+			copy.addState();
+		}
+		copy.setInitialState(initialState);
+		for (int state = 0; state < automaton.getNbStates(); state++) {
+			if (finalStates.get(state)) {
+				copy.setFinal(state);
+			}
+			for (int symbol = FREE; symbol <= WORK; symbol++) {
+				int next = delta(automaton, state, symbol);
+				if (next >= 0) {
+					copy.addTransition(state, next, symbol);
+				}
+			}
+		}
+		return copy;
+	}
+
+	private static FiniteAutomaton buildBlocks(int maxBlock, int restPeriod) {
+		FiniteAutomaton automaton = new FiniteAutomaton();
+		int ready = automaton.addState();					// may start a block, but the last shift did not end the rota properly
+		automaton.setInitialState(ready);
+		int free = automaton.addState();					// ready, and the last shift was a free one on its own
+		automaton.setFinal(free);
+		if (restPeriod == 0) {
+			// blocks can follow each other straight away, so every non-empty rota is accepted
+			automaton.addTransition(ready, free, FREE, WORK);
+			automaton.addTransition(free, free, FREE, WORK);
+			return automaton;
+		}
+		automaton.addTransition(ready, free, FREE);
+		automaton.addTransition(free, free, FREE);
+		int[] worked = new int[maxBlock + 1];				// worked[j]: j shifts into the current block
+		for (int j = 1; j <= maxBlock; j++) {
+			worked[j] = automaton.addState();
+			automaton.setFinal(worked[j]);
+		}
+		int[] rested = new int[restPeriod];					// rested[t]: t free shifts into the rest period
+		for (int t = 1; t < restPeriod; t++) {
+			rested[t] = automaton.addState();
+		}
+		if (maxBlock > 0) {
+			automaton.addTransition(ready, worked[1], WORK);
+			automaton.addTransition(free, worked[1], WORK);
+		}
+		for (int j = 1; j <= maxBlock; j++) {
+			if (j < maxBlock) {
+				automaton.addTransition(worked[j], worked[j + 1], WORK);
+			}
+			automaton.addTransition(worked[j], restPeriod == 1 ? ready : rested[1], FREE);
+		}
+		for (int t = 1; t < restPeriod; t++) {
+			automaton.addTransition(rested[t], t + 1 == restPeriod ? ready : rested[t + 1], FREE);
+		}
+		return automaton;
+	}
+
+	private static FiniteAutomaton buildBreak(int breakPeriod) {
+		FiniteAutomaton automaton = new FiniteAutomaton();
+		int[] run = new int[breakPeriod + 1];				// run[i]: the last i shifts were free, and no break yet
+		for (int i = 0; i <= breakPeriod; i++) {
+			run[i] = automaton.addState();
+		}
+		automaton.setInitialState(run[0]);
+		automaton.setFinal(run[breakPeriod]);				// the break has been taken, anything goes from here
+		automaton.addTransition(run[breakPeriod], run[breakPeriod], FREE, WORK);
+		for (int i = 0; i < breakPeriod; i++) {
+			automaton.addTransition(run[i], run[i + 1], FREE);
+			automaton.addTransition(run[i], run[0], WORK);
+		}
+		return automaton;
+	}
+
+	/*
+	 *  The reachable part of the product of two deterministic automata over {FREE, WORK}.
+	 */
+	private static FiniteAutomaton product(FiniteAutomaton first, FiniteAutomaton second) {
+		FiniteAutomaton automaton = new FiniteAutomaton();
+		int width = second.getNbStates();
+		int[] states = new int[first.getNbStates() * width];	// product state of each pair, or -1 if not reached yet
+		Arrays.fill(states, -1);
+		int[] queue = new int[states.length];
+		int head = 0;
+		int tail = 0;
+		int start = first.getInitialState() * width + second.getInitialState();
+		states[start] = automaton.addState();
+		automaton.setInitialState(states[start]);
+		queue[tail++] = start;
+		while (head < tail) {
+			int pair = queue[head++];
+			int a = pair / width;
+			int b = pair % width;
+			if (first.isFinal(a) && second.isFinal(b)) {
+				automaton.setFinal(states[pair]);
+			}
+			for (int symbol = FREE; symbol <= WORK; symbol++) {
+				int nextA = delta(first, a, symbol);
+				int nextB = delta(second, b, symbol);
+				if (nextA < 0 || nextB < 0) {
+					continue;
+				}
+				int next = nextA * width + nextB;
+				if (states[next] < 0) {
+					states[next] = automaton.addState();
+					queue[tail++] = next;
+				}
+				automaton.addTransition(states[pair], states[next], symbol);
+			}
+		}
+		return automaton;
+	}
+
+	/*
+	 *  A deterministic automaton over {FREE, WORK} as plain arrays, which nothing modifies once built.
+	 */
+	private static final class Transitions {
+		private final int initialState;
+		private final int[][] next;							// next[state][symbol], or -1
+		private final boolean[] isFinal;
+
+		Transitions(FiniteAutomaton automaton) {
+			int numStates = automaton.getNbStates();
+			initialState = automaton.getInitialState();
+			next = new int[numStates][];
+			isFinal = new boolean[numStates];
+			for (int state = 0; state < numStates; state++) {
+				next[state] = new int[] { delta(automaton, state, FREE), delta(automaton, state, WORK) };
+				isFinal[state] = automaton.isFinal(state);
+			}
+		}
+
+		FiniteAutomaton toAutomaton() {
+			FiniteAutomaton automaton = new FiniteAutomaton();
+			for (int state = 0; state < next.length; state++) {
+				automaton.addState();
+			}
+			automaton.setInitialState(initialState);
+			for (int state = 0; state < next.length; state++) {
+				if (isFinal[state]) {
+					automaton.setFinal(state);
+				}
+				for (int symbol = FREE; symbol <= WORK; symbol++) {
+					if (next[state][symbol] >= 0) {
+						automaton.addTransition(state, next[state][symbol], symbol);
+					}
+				}
+			}
+			return automaton;
+		}
+	}
+
+	private static int delta(FiniteAutomaton automaton, int state, int symbol) {
+		try {
+			return automaton.delta(state, symbol); 		// -1 when there is no transition on this symbol
+		}
+		catch (IAutomaton.NonDeterministicOperationException e) {
+			throw new IllegalStateException("Shift automata are deterministic", e);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ *  Solution sink
+ *  Where the solutions found by the solver get written to.
+ *
+ *  Every improving solution used to be printed cell by cell with System.out.print, which is thousands of unbuffered
+ *  writes per solution on the bigger rosters, all thrown away but the last. A sink writes through a single buffered
+ *  writer and, in FINAL_ONLY mode (the default), only keeps hold of the latest solution and writes it once on close().
+ *  The solution itself is a snapshot taken from the variables (see ResidentsSolution and PioneerSolution), which
+ *  costs far less than formatting it.
+ *
+ *  In EVERY_SOLUTION mode the writer is also flushed when FLUSH_MILLIS have gone by since it last was, so that a
+ *  long run shows its solutions as they come without a write per solution.
+ *
+ *  TEXT is the human readable layout the assignments have always printed. JSON_LINES writes one compact JSON object
+ *  per solution, with its number, objective and the milliseconds elapsed since the sink was opened. When there is
+ *  no solution at all because the instance was proved infeasible, infeasible() writes that instead, with the reason.
+ */
+
+public class SolutionSink implements Closeable {
+	public static final long FLUSH_MILLIS = 500;
+
+	public enum Mode {
+		FINAL_ONLY,				// only the last solution, i.e. the optimal one once the search completes
+		EVERY_SOLUTION
+	}
+
+	public enum Format {
+		TEXT,
+		JSON_LINES
+	}
+
+	/*
+	 *  A snapshot of one solution, which knows how to write itself in each format.
+	 */
+	public interface Printable {
+		int getObjective();
+
+		void appendText(StringBuilder out);
+
+		void appendJson(StringBuilder out);		// the fields of the solution, without the surrounding braces
+	}
+
+	private final Mode mode;
+	private final Format format;
+	private final Writer out;
+	private final long start = System.nanoTime();
+	private final StringBuilder line = new StringBuilder();
+	private Printable last;						// the latest solution not written yet, in FINAL_ONLY mode
+	private long lastElapsed;
+	private long lastFlush;						// elapsed nanoseconds at the last flush
+	private long numSolutions;
+
+	public SolutionSink(Mode mode, Format format, Writer out) {
+		this.mode = mode;
+		this.format = format;
+		this.out = out;
+	}
+
+	/*
+	 *  A sink writing to standard output, buffered, without going through System.out.
+	 */
+	public static SolutionSink toStandardOutput(Mode mode, Format format) {
+		return new SolutionSink(mode, format, new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16));
+	}
+
+	/*
+	 *  Picks the mode and format from the command line: -all for every solution, -json for JSON lines.
+	 */
+	public static SolutionSink fromArguments(String[] args) {
+		Mode mode = Mode.FINAL_ONLY;
+		Format format = Format.TEXT;
+		for (String arg : args) {
+			if (arg.equals("-all")) {
+				mode = Mode.EVERY_SOLUTION;
+			}
+			else if (arg.equals("-json")) {
+				format = Format.JSON_LINES;
+			}
+		}
+		return toStandardOutput(mode, format);
+	}
+
+	public void accept(Printable solution) {
+		numSolutions++;
+		long elapsed = System.nanoTime() - start;
+		if (mode == Mode.FINAL_ONLY) {
+			last = solution;
+			lastElapsed = elapsed;
+			return;
+		}
+		write(solution, numSolutions, elapsed);
+		if (elapsed - lastFlush >= FLUSH_MILLIS * 1_000_000) {
+			lastFlush = elapsed;
+			try {
+				out.flush();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/*
+	 *  Reports that there is no solution, e.g. "No schedule: <reason>." or {"status":"INFEASIBLE","reason":..}.
+	 */
+	public void infeasible(String reason) {
+		line.setLength(0);
+		if (format == Format.JSON_LINES) {
+			line.append("{\"status\":\"INFEASIBLE\",\"reason\":").append(quote(reason))
+				.append(",\"elapsedMs\":").append((System.nanoTime() - start) / 1_000_000).append("}\n");
+		}
+		else {
+			line.append("No schedule: ").append(reason).append(".\n");
+		}
+		try {
+			out.append(line);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public long getNumSolutions() {
+		return numSolutions;
+	}
+
+	public Format getFormat() {
+		return format;
+	}
+
+	/*
+	 *  Writes whatever is left to write and flushes. The underlying writer is flushed, not closed,
+	 *  so that standard output can still be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (last != null) {
+			write(last, numSolutions, lastElapsed);
+			last = null;
+		}
+		try {
+			out.flush();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void write(Printable solution, long number, long elapsed) {
+		line.setLength(0);
+		if (format == Format.JSON_LINES) {
+			line.append("{\"solution\":").append(number)
+				.append(",\"objective\":").append(solution.getObjective())
+				.append(",\"elapsedMs\":").append(elapsed / 1_000_000).append(',');
+			solution.appendJson(line);
+			line.append("}\n");
+		}
+		else {
+			line.append("\nSolution ").append(number).append(":\n");
+			solution.appendText(line);
+		}
+		try {
+			out.append(line);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 *  The text as a JSON string, quotes included.
+	 */
+	static String quote(String text) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (char c : text.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			}
+			else if (c < ' ') {
+				quoted.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
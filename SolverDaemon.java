@@ -0,0 +1,184 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ *  Solver daemon
+ *  A long-running solver for many small requests, so that each one costs its resolution rather than the start of a
+ *  JVM, the loading of the Choco classes and their compilation by the JIT.
+ *
+ *  Usage: SolverDaemon [-port n] [-workers n] [-time limit] [-nodes n] [-warmup rounds]
+ *  Requests are read one per line, from standard input or, with -port, from connections to that port on the
+ *  loopback address only, several connections being served at a time by -workers threads (one per core by default).
+ *  A request is the path of an instance file, optionally preceded by its kind:
+ *  	residents src/data/residents0.txt
+ *  	pioneer /data/site4.txt
+ *  	src/data/pioneer2.txt				(a pioneer instance, as for BatchSolver: "pioneer" is in its name)
+ *  and "quit" ends the connection (or the daemon, on standard input). Each request is answered by one line:
+ *  a JSON object with the fields of its BatchSolver outcome and of the best solution found, e.g.
+ *  	{"instance":"src/data/residents0.txt","kind":"residents","status":"OPTIMAL","objective":8,...,"shifts":[[...]]}
+ *  Requests are solved as BatchSolver does, presolve included, within the -time and -nodes limits.
+ *
+ *  Before taking requests, the daemon solves small built-in instances of both kinds -warmup times (default 50),
+ *  which loads and compiles the code every request goes through. The automata of ShiftAutomata stay cached from
+ *  one request to the next.
+ */
+
+public class SolverDaemon {
+	public static final String USAGE = "Usage: SolverDaemon [-port n] [-workers n] [-time limit] [-nodes n] [-warmup rounds]";
+
+	private final BatchSolver solver;
+
+	public SolverDaemon(String timeLimit, long nodeLimit) {
+		this.solver = new BatchSolver(1, timeLimit, nodeLimit);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = -1;
+		int numWorkers = Runtime.getRuntime().availableProcessors();
+		String timeLimit = "60s";
+		long nodeLimit = 0;
+		int rounds = 50;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				System.err.println("No value after " + args[i] + ". " + USAGE);
+				System.exit(2);
+			}
+			try {
+				switch (args[i]) {
+				case "-port":
+					port = Integer.parseInt(args[i + 1]);
+					break;
+				case "-workers":
+					numWorkers = Integer.parseInt(args[i + 1]);
+					break;
+				case "-time":
+					timeLimit = args[i + 1];
+					break;
+				case "-nodes":
+					nodeLimit = Long.parseLong(args[i + 1]);
+					break;
+				case "-warmup":
+					rounds = Integer.parseInt(args[i + 1]);
+					break;
+				default:
+					System.err.println("Unknown option " + args[i] + ". " + USAGE);
+					System.exit(2);
+				}
+			}
+			catch (NumberFormatException e) {
+				System.err.println("Not a number after " + args[i] + ": " + args[i + 1] + ". " + USAGE);
+				System.exit(2);
+			}
+		}
+		SolverDaemon daemon = new SolverDaemon(timeLimit, nodeLimit);
+		long start = System.nanoTime();
+		warmUp(rounds);
+		System.err.println("Warmed up in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		if (port < 0) {
+			daemon.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+					new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8)));
+		}
+		else {
+			daemon.listen(port, numWorkers);
+		}
+	}
+
+	/*
+	 *  Serves connections to the port on the loopback address, until the process is stopped.
+	 */
+	public void listen(int port, int numWorkers) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, numWorkers));
+		try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			System.err.println("Listening on " + server.getLocalSocketAddress());
+			while (true) {
+				Socket socket = server.accept();
+				pool.execute(() -> {
+					try (Socket connection = socket) {
+						serve(new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)),
+								new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8)));
+					}
+					catch (IOException e) {
+						System.err.println("Connection dropped: " + e);
+					}
+				});
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/*
+	 *  Answers the requests read from in, one line each, until quit or the end of in.
+	 */
+	public void serve(BufferedReader in, Writer out) throws IOException {
+		String request;
+		while ((request = in.readLine()) != null) {
+			request = request.trim();
+			if (request.isEmpty()) {
+				continue;
+			}
+			if (request.equals("quit")) {
+				break;
+			}
+			out.write(answer(request));
+			out.flush();
+		}
+	}
+
+	/*
+	 *  The line answering one request.
+	 */
+	public String answer(String request) {
+		String[] words = request.split("\\s+", 2);
+		BatchSolver.Outcome outcome;
+		if (words.length == 2 && (words[0].equals("residents") || words[0].equals("pioneer"))) {
+			outcome = solver.solve(Paths.get(words[1]), words[0].equals("pioneer"));
+		}
+		else {
+			outcome = solver.solve(Paths.get(request));
+		}
+		StringBuilder line = new StringBuilder("{");
+		outcome.appendJson(line);
+		return line.append("}\n").toString();
+	}
+
+	/*
+	 *  Builds and solves small instances of both kinds, as requests would, the given number of times.
+	 */
+	static void warmUp(int rounds) {
+		for (int round = 0; round < rounds; round++) {
+			ResidentsInstance residents = new ResidentsInstance(4, 10, 2, new int[] { 1, 2, 1, 2, 1, 2, 1, 2, 1, 2 },
+					SparseBinaryMatrix.fromRows(new int[][] { { 1, 6 }, { 3 } }, 10),
+					SparseBinaryMatrix.fromRows(new int[][] { { 0 }, { 0, 1 }, { 1 }, {} }, 2), 3, 1, 2, 2);
+			ResidentsPresolve presolve = ResidentsPresolve.reduce(residents);
+			ResidentsModel residentsModel = ResidentsModel.build(presolve.getReduced(), SearchStrategy.DOM_OVER_W_DEG);
+			while (residentsModel.getModel().getSolver().solve()) {
+				ResidentsSolution.of(residentsModel).appendJson(new StringBuilder());
+			}
+
+			PioneerInstance pioneer = PioneerPresolve.reduce(new PioneerInstance(5, 40, new int[] { 3, 5, 7, 2, 11 },
+					new int[] { 4, 9, 10, 1, 20 }, new int[] { 3, 2, 2, 5, 1 }, new int[][] { { 0, 1 }, { 2, 4 } })).getReduced();
+			PioneerSolution relaxed = PioneerKnapsackDP.solve(pioneer);
+			PioneerSolution incumbent = PioneerKnapsackDP.repair(pioneer, relaxed.getExperiments());
+			PioneerModel pioneerModel = PioneerModel.build(pioneer, SearchStrategy.DEFAULT);
+			pioneerModel.warmStart(incumbent, relaxed.getScientificValue());
+			while (pioneerModel.getModel().getSolver().solve()) {
+				PioneerSolution.of(pioneerModel).appendJson(new StringBuilder());
+			}
+		}
+	}
+}
@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*------CHOCO Library Imports----------*/
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.propagation.PropagationEngine;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+
+/*
+ *  Solver metrics
+ *  Records where a resolution spends its time, by constraint group: the parts of the model named by
+ *  ResidentsModel.getConstraintGroups() or PioneerModel.getConstraintGroups(), e.g. "regular", "shift-sum" or "befores".
+ *
+ *  For each group: how many times its propagators ran, for how long, and how many failures they raised.
+ *  For the search: nodes, fails, restarts and solutions as they grow, and the time to each improving solution.
+ *  Constraints posted outside any group (e.g. by warmStart) are counted under their Choco name, lower case.
+ *
+ *  Propagators are timed by a propagation engine installed on the solver in place of the default one, so it
+ *  must be attached before the first solve. The initial propagation of each propagator goes through it too, and is
+ *  timed with the rest of its group.
+ *
+ *  Usage: -metrics file on the command line of Residents116365436 or Pioneer116365436.
+ *  The file is rewritten every few seconds in Prometheus text format (each time as a whole, so it can be read by
+ *  the node exporter's textfile collector), and once more on close(). On close() the time is also written to
+ *  file.folded, one line per stack in the folded format read by flamegraph.pl:
+ *  	residents;propagation;regular 81234
+ *  	residents;search 1502
+ *  with times in microseconds.
+ */
+
+public class SolverMetrics {
+	public static final long SNAPSHOT_SECONDS = 5;
+
+	private final String job;							// residents or pioneer, the job label and root frame
+	private final Solver solver;
+	private final Path file;							// null when not recording
+	private final List<String> groupNames = new ArrayList<>();
+	private final Map<Propagator<?>, Integer> groupOfPropagator = new HashMap<>();
+	private final Map<String, Integer> groupIndex = new HashMap<>();
+	private long[] calls = new long[0];
+	private long[] nanos = new long[0];
+	private long[] failures = new long[0];
+	private final List<long[]> improvements = new CopyOnWriteArrayList<>();	// {nanoseconds since start, objective}
+	private final long start = System.nanoTime();
+	private ScheduledExecutorService exporter;
+
+	private SolverMetrics(String job, Model model, Map<String, Constraint[]> groups, Path file) {
+		this.job = job;
+		this.solver = model.getSolver();
+		this.file = file;
+		if (file == null) {
+			return;
+		}
+		for (Map.Entry<String, Constraint[]> group : groups.entrySet()) {
+			int index = indexOf(group.getKey());
+			for (Constraint constraint : group.getValue()) {
+				for (Propagator<?> propagator : constraint.getPropagators()) {
+					groupOfPropagator.put(propagator, index);
+				}
+			}
+		}
+		solver.setEngine(new MeteredEngine(model));
+		solver.plugMonitor((IMonitorSolution) () -> improvements.add(new long[] {
+				System.nanoTime() - start, solver.getObjectiveManager().getBestSolutionValue().longValue() }));
+		exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics exporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		exporter.scheduleAtFixedRate(() -> {
+			try {
+				writeSnapshot();
+			}
+			catch (IOException e) {
+				System.err.println("Could not write metrics to " + file + ": " + e);
+			}
+		}, SNAPSHOT_SECONDS, SNAPSHOT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/*
+	 *  Records the resolution of the model into the file given after -metrics, or does nothing at all if there is none.
+ *  Prints the usage and exits if -metrics is the last argument.
+	 */
+	public static SolverMetrics fromArguments(String[] args, String job, Model model, Map<String, Constraint[]> groups) {
+		int metricsArgument = Arrays.asList(args).indexOf("-metrics");
+		Path file = null;
+		if (metricsArgument >= 0) {
+			if (metricsArgument + 1 == args.length) {
+				System.err.println("No file after -metrics. Usage: -metrics file");
+				System.exit(2);
+			}
+			file = Paths.get(args[metricsArgument + 1]);
+		}
+		return new SolverMetrics(job, model, groups, file);
+	}
+
+	/*
+	 *  Stops the periodic snapshots and writes the final snapshot and the folded summary.
+	 */
+	public void close() throws IOException {
+		if (file == null) {
+			return;
+		}
+		exporter.shutdownNow();
+		writeSnapshot();
+		writeFolded(Paths.get(file + ".folded"));
+	}
+
+	private synchronized int indexOf(String group) {
+		Integer index = groupIndex.get(group);
+		if (index == null) {
+			index = groupNames.size();
+			groupNames.add(group);
+			groupIndex.put(group, index);
+			calls = Arrays.copyOf(calls, index + 1);
+			nanos = Arrays.copyOf(nanos, index + 1);
+			failures = Arrays.copyOf(failures, index + 1);
+		}
+		return index;
+	}
+
+	/*
+	 *  The group of a propagator, which is its constraint's name if it was posted outside the groups.
+	 */
+	private int groupOf(Propagator<?> propagator) {
+		Integer index = groupOfPropagator.get(propagator);
+		if (index == null) {
+			index = indexOf(propagator.getConstraint().getName().toLowerCase(Locale.ROOT));
+			groupOfPropagator.put(propagator, index);
+		}
+		return index;
+	}
+
+	private synchronized void writeSnapshot() throws IOException {
+		StringBuilder out = new StringBuilder();
+		String job = "job=\"" + this.job + "\"";
+		header(out, "choco_propagations_total", "counter", "Propagator executions, by constraint group.");
+		for (int group = 0; group < groupNames.size(); group++) {
+			sample(out, "choco_propagations_total", job + ",group=\"" + groupNames.get(group) + "\"", calls[group]);
+		}
+		header(out, "choco_propagation_seconds_total", "counter", "Time spent in propagators, by constraint group.");
+		for (int group = 0; group < groupNames.size(); group++) {
+			sample(out, "choco_propagation_seconds_total", job + ",group=\"" + groupNames.get(group) + "\"", nanos[group] / 1e9);
+		}
+		header(out, "choco_propagation_failures_total", "counter", "Failures raised by propagators, by constraint group.");
+		for (int group = 0; group < groupNames.size(); group++) {
+			sample(out, "choco_propagation_failures_total", job + ",group=\"" + groupNames.get(group) + "\"", failures[group]);
+		}
+		header(out, "choco_nodes_total", "counter", "Nodes opened by the search.");
+		sample(out, "choco_nodes_total", job, solver.getNodeCount());
+		header(out, "choco_fails_total", "counter", "Failures met by the search.");
+		sample(out, "choco_fails_total", job, solver.getFailCount());
+		header(out, "choco_restarts_total", "counter", "Restarts of the search.");
+		sample(out, "choco_restarts_total", job, solver.getRestartCount());
+		header(out, "choco_solutions_total", "counter", "Improving solutions found.");
+		sample(out, "choco_solutions_total", job, improvements.size());
+		header(out, "choco_elapsed_seconds", "gauge", "Time since the metrics were attached.");
+		sample(out, "choco_elapsed_seconds", job, (System.nanoTime() - start) / 1e9);
+		if (!improvements.isEmpty()) {
+			header(out, "choco_best_objective", "gauge", "Objective of the best solution so far.");
+			sample(out, "choco_best_objective", job, improvements.get(improvements.size() - 1)[1]);
+			header(out, "choco_solution_seconds", "gauge", "Time to each improving solution, by rank.");
+			for (int rank = 0; rank < improvements.size(); rank++) {
+				sample(out, "choco_solution_seconds", job + ",solution=\"" + (rank + 1) + "\"", improvements.get(rank)[0] / 1e9);
+			}
+		}
+		Path temporary = Paths.get(file + ".tmp");
+		Files.write(temporary, out.toString().getBytes(StandardCharsets.UTF_8));
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void header(StringBuilder out, String name, String type, String help) {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder out, String name, String labels, Object value) {
+		out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+	}
+
+	private void writeFolded(Path folded) throws IOException {
+		long propagation = 0;
+		try (Writer out = Files.newBufferedWriter(folded, StandardCharsets.UTF_8)) {
+			for (int group = 0; group < groupNames.size(); group++) {
+				if (nanos[group] > 0) {
+					out.write(job + ";propagation;" + groupNames.get(group) + " " + nanos[group] / 1000 + "\n");
+					propagation += nanos[group];
+				}
+			}
+			out.write(job + ";search " + Math.max(0, System.nanoTime() - start - propagation) / 1000 + "\n");
+		}
+	}
+
+	/*
+	 *  The default engine, timing every propagator it runs, i.e. every fine or coarse event, and counting its failures.
+	 */
+	private class MeteredEngine extends PropagationEngine {
+
+		MeteredEngine(Model model) {
+			super(model);
+		}
+
+		@Override
+		protected void propagateEvents() throws ContradictionException {
+			int group = groupOf(lastProp);
+			long started = System.nanoTime();
+			try {
+				super.propagateEvents();
+			}
+			catch (ContradictionException e) {
+				failures[group]++;
+				throw e;
+			}
+			finally {
+				calls[group]++;
+				nanos[group] += System.nanoTime() - started;
+			}
+		}
+
+		@Override
+		public void execute(Propagator<?> propagator) throws ContradictionException {
+			int group = groupOf(propagator);
+			long started = System.nanoTime();
+			try {
+				super.execute(propagator);
+			}
+			catch (ContradictionException e) {
+				failures[group]++;
+				throw e;
+			}
+			finally {
+				calls[group]++;
+				nanos[group] += System.nanoTime() - started;
+			}
+		}
+	}
+}
@@ -0,0 +1,157 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/*
+ *  Sparse binary matrix
+ *  A 0/1 matrix stored as the sorted column indices of the 1s of each row, one after the other
+ *  (compressed sparse rows), so that it takes memory in the number of 1s rather than rows x columns.
+ *
+ *  Used for the qualification matrices of the residents problem, which are mostly 0s: a resident needs a few
+ *  qualifications out of many, and a qualification is offered on a few shifts out of many.
+ */
+
+public class SparseBinaryMatrix {
+	private final int numRows;
+	private final int numColumns;
+	private final int[] rowStart;			// the 1s of row i are columns[rowStart[i]] .. columns[rowStart[i + 1] - 1]
+	private final int[] columns;
+
+	private SparseBinaryMatrix(int numRows, int numColumns, int[] rowStart, int[] columns) {
+		this.numRows = numRows;
+		this.numColumns = numColumns;
+		this.rowStart = rowStart;
+		this.columns = columns;
+	}
+
+	/*
+	 *  Fills a matrix one row at a time, in order, without knowing how many 1s there will be.
+	 */
+	public static class Builder {
+		private final int numRows;
+		private final int numColumns;
+		private final int[] rowStart;
+		private int[] columns = new int[16];
+		private int numOnes;
+		private int row;
+
+		public Builder(int numRows, int numColumns) {
+			this.numRows = numRows;
+			this.numColumns = numColumns;
+			this.rowStart = new int[numRows + 1];
+		}
+
+		/*
+		 *  Adds a 1 in the current row; columns must come in increasing order within a row.
+		 */
+		public Builder set(int column) {
+			if (column < 0 || column >= numColumns) {
+				throw new IndexOutOfBoundsException("column " + column + " of " + numColumns);
+			}
+			if (numOnes > rowStart[row] && columns[numOnes - 1] >= column) {
+				throw new IllegalArgumentException("columns of a row must be set in increasing order");
+			}
+			if (numOnes == columns.length) {
+				columns = Arrays.copyOf(columns, numOnes * 2);
+			}
+			columns[numOnes++] = column;
+			return this;
+		}
+
+		/*
+		 *  Moves on to the next row.
+		 */
+		public Builder endRow() {
+			rowStart[++row] = numOnes;
+			return this;
+		}
+
+		public SparseBinaryMatrix build() {
+			if (row != numRows) {
+				throw new IllegalStateException(row + " rows filled out of " + numRows);
+			}
+			return new SparseBinaryMatrix(numRows, numColumns, rowStart, Arrays.copyOf(columns, numOnes));
+		}
+	}
+
+	public static SparseBinaryMatrix fromDense(int[][] matrix, int numColumns) {
+		Builder builder = new Builder(matrix.length, numColumns);
+		for (int[] row : matrix) {
+			for (int column = 0; column < numColumns; column++) {
+				if (row[column] == 1) {
+					builder.set(column);
+				}
+			}
+			builder.endRow();
+		}
+		return builder.build();
+	}
+
+	/*
+	 *  A matrix whose rows are the given sorted column lists.
+	 */
+	public static SparseBinaryMatrix fromRows(int[][] rows, int numColumns) {
+		Builder builder = new Builder(rows.length, numColumns);
+		for (int[] row : rows) {
+			for (int column : row) {
+				builder.set(column);
+			}
+			builder.endRow();
+		}
+		return builder.build();
+	}
+
+	public int getNumRows() {
+		return numRows;
+	}
+
+	public int getNumColumns() {
+		return numColumns;
+	}
+
+	public int getNumOnes() {
+		return columns.length;
+	}
+
+	public boolean get(int row, int column) {
+		return Arrays.binarySearch(columns, rowStart[row], rowStart[row + 1], column) >= 0;
+	}
+
+	/*
+	 *  The columns holding a 1 in the row, in increasing order.
+	 */
+	public int[] row(int row) {
+		return Arrays.copyOfRange(columns, rowStart[row], rowStart[row + 1]);
+	}
+
+	public int rowLength(int row) {
+		return rowStart[row + 1] - rowStart[row];
+	}
+
+	/*
+	 *  The first column holding a 1 in the row, or -1 if the row is all 0s.
+	 */
+	public int firstInRow(int row) {
+		return rowLength(row) == 0 ? -1 : columns[rowStart[row]];
+	}
+
+	public BitSet rowBits(int row) {
+		BitSet bits = new BitSet(numColumns);
+		for (int i = rowStart[row]; i < rowStart[row + 1]; i++) {
+			bits.set(columns[i]);
+		}
+		return bits;
+	}
+
+	/*
+	 *  The full matrix, for code that still wants one: takes rows x columns ints.
+	 */
+	public int[][] toDense() {
+		int[][] matrix = new int[numRows][numColumns];
+		for (int row = 0; row < numRows; row++) {
+			for (int i = rowStart[row]; i < rowStart[row + 1]; i++) {
+				matrix[row][columns[i]] = 1;
+			}
+		}
+		return matrix;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ *  Synthetic instances
+ *  Scales a bundled instance up by a whole factor while keeping it feasible, so that the benchmarks can tell
+ *  how build and solve time grow with the size of the problem.
+ *
+ *  Residents: every resident is copied factor times and every shift needs factor times the staff, so any schedule of
+ *  the original instance, copied for each group of residents, is a schedule of the scaled one.
+ *  Pioneer: every experiment type is copied factor times (with its befores), and so are the hours available.
+ */
+
+public class SyntheticInstances {
+
+	private SyntheticInstances() {
+	}
+
+	public static ResidentsInstance scale(ResidentsInstance instance, int factor) {
+		int numResidents = instance.getNumResidents();
+		int numShifts = instance.getNumShifts();
+		int[] minStaffForShift = new int[numShifts];
+		for (int shift = 0; shift < numShifts; shift++) {
+			minStaffForShift[shift] = instance.getMinStaffForShift()[shift] * factor;
+		}
+		int[][] qualificationsNeeded = new int[numResidents * factor][];
+		for (int resident = 0; resident < qualificationsNeeded.length; resident++) {
+			qualificationsNeeded[resident] = instance.getQualificationsNeeded().row(resident % numResidents);
+		}
+		return new ResidentsInstance(numResidents * factor, numShifts, instance.getNumQualifications(), minStaffForShift,
+				instance.getQualificationsOffered(),
+				SparseBinaryMatrix.fromRows(qualificationsNeeded, instance.getNumQualifications()),
+				instance.getMaxBlock(), instance.getRestPeriod(), instance.getBreakPeriod(), instance.getMinShifts());
+	}
+
+	public static PioneerInstance scale(PioneerInstance instance, int factor) {
+		int numTypes = instance.getNumTypes();
+		int numBefores = instance.getNumBefores();
+		int[] hours = new int[numTypes * factor];
+		int[] values = new int[numTypes * factor];
+		int[] totals = new int[numTypes * factor];
+		int[][] befores = new int[numBefores * factor][];
+		for (int copy = 0; copy < factor; copy++) {
+			for (int type = 0; type < numTypes; type++) {
+				hours[copy * numTypes + type] = instance.getHours()[type];
+				values[copy * numTypes + type] = instance.getValues()[type];
+				totals[copy * numTypes + type] = instance.getTotals()[type];
+			}
+			for (int i = 0; i < numBefores; i++) {
+				int[] before = instance.getBefores()[i];
+				befores[copy * numBefores + i] = new int[] {copy * numTypes + before[0], copy * numTypes + before[1]};
+			}
+		}
+		return new PioneerInstance(numTypes * factor, instance.getTotalHours() * factor, hours, values, totals, befores);
+	}
+}
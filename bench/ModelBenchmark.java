@@ -0,0 +1,86 @@
+package bench;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ *  JMH benchmarks of the Residents and Pioneer models
+ *  Measures model building and resolution separately, as in the timings table of Residents116365436, for every
+ *  bundled data file under every search strategy, on the file itself (scale 1) and on synthetically scaled copies
+ *  of it (see SyntheticInstances).
+ *
+ *  Run from the project directory, so that src/data/ resolves, e.g. for one file and strategy:
+ *  	java -cp <classpath> org.openjdk.jmh.Main bench.ModelBenchmark -p instance=residents0 -p strategy=DOM_OVER_W_DEG
+ *
+ *  The models live in the default package, which JMH does not accept benchmarks from, so they are reached
+ *  through ModelBenchmarkTarget (see there).
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelBenchmark {
+
+	@Param({"residents0", "residents1", "residents2", "residents3", "residents4", "pioneer0", "pioneer1", "pioneer2"})
+	public String instance;
+
+	@Param({"DEFAULT", "DOM_OVER_W_DEG", "MIN_DOM_LB", "INPUT_ORDER_LB", "INPUT_ORDER_UB", "ACTIVITY_BASED", "IMPACT_BASED"})
+	public String strategy;
+
+	@Param({"1", "2", "4"})
+	public int scale;
+
+	@Param({"60s"})
+	public String timeLimit;	// caps each resolution, so that a slow configuration cannot stall the whole run
+
+	private Supplier<Callable<Object>> target;
+
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void loadInstance() throws ReflectiveOperationException {
+		target = (Supplier<Callable<Object>>) Class.forName("ModelBenchmarkTarget")
+				.getMethod("create", String.class, int.class, String.class, String.class)
+				.invoke(null, instance, scale, strategy, timeLimit);
+	}
+
+	@Benchmark
+	public Object building() {
+		return target.get();
+	}
+
+	@Benchmark
+	public Object resolution(BuiltModel builtModel) throws Exception {
+		return builtModel.solve.call();
+	}
+
+	/*
+	 *  A fresh model for each call of resolution(), built outside the measured time. A state of its own, so that
+	 *  building() is not slowed down by a setup run around every one of its calls.
+	 */
+	@State(Scope.Thread)
+	public static class BuiltModel {
+		private Callable<Object> solve;
+
+		@Setup(Level.Invocation)
+		public void build(ModelBenchmark benchmark) {
+			solve = benchmark.target.get();
+		}
+	}
+}
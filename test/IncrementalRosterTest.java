@@ -0,0 +1,86 @@
+/*
+ *  Incremental roster test
+ *  Re-solving after a change must give the same total as solving the changed roster from scratch. In particular
+ *  after a solve that found no schedule: the schedule before it must not bound the next one, and the solves after
+ *  the next one must still run.
+ *
+ *  On a small roster, every pair of worked shifts of the first schedule is made unavailable; when that leaves no
+ *  schedule, one of the two is given back and the roster solved twice, and compared to a new IncrementalRoster
+ *  with only the other one unavailable. The same is done with a minimum staff raised past the number of residents
+ *  and lowered again. Throws AssertionError on the first mismatch.
+ */
+
+public class IncrementalRosterTest {
+
+	public static void main(String[] args) {
+		ResidentsInstance instance = new ResidentsInstance(3, 10, 2,
+				new int[] { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 },
+				SparseBinaryMatrix.fromRows(new int[][] { { 5, 7 }, { 7 } }, 10),
+				SparseBinaryMatrix.fromRows(new int[][] { { 0, 1 }, { 0 }, { 0, 1 } }, 2),
+				4, 1, 2, 2);
+		int numChecked = checkUnavailable(instance) + checkMinStaff(instance);
+		System.out.println("IncrementalRosterTest: " + numChecked + " infeasible then relaxed rosters ok");
+	}
+
+	private static int checkUnavailable(ResidentsInstance instance) {
+		int numShifts = instance.getNumShifts();
+		int[][] first = new IncrementalRoster(instance).solve().getShiftsAssigned();
+		int numCells = instance.getNumResidents() * numShifts;
+		int numChecked = 0;
+		for (int kept = 0; kept < numCells; kept++) {
+			for (int given = 0; given < numCells; given++) {
+				if (kept == given || first[kept / numShifts][kept % numShifts] == 0 || first[given / numShifts][given % numShifts] == 0) {
+					continue;
+				}
+				IncrementalRoster roster = new IncrementalRoster(instance);
+				roster.solve();
+				roster.setUnavailable(kept / numShifts, kept % numShifts, true);
+				roster.setUnavailable(given / numShifts, given % numShifts, true);
+				if (roster.solve() != null) {
+					continue;
+				}
+				roster.setUnavailable(given / numShifts, given % numShifts, false);
+				IncrementalRoster cold = new IncrementalRoster(instance);
+				cold.setUnavailable(kept / numShifts, kept % numShifts, true);
+				checkTwice(roster, total(cold.solve()), "Cells " + kept + " then " + given + " unavailable, " + given + " given back");
+				numChecked++;
+			}
+		}
+		if (numChecked == 0) {
+			throw new AssertionError("No pair of cells left the roster without a schedule");
+		}
+		return numChecked;
+	}
+
+	private static int checkMinStaff(ResidentsInstance instance) {
+		int numShifts = instance.getNumShifts();
+		int expected = total(new IncrementalRoster(instance).solve());
+		for (int shift = 0; shift < numShifts; shift++) {
+			IncrementalRoster roster = new IncrementalRoster(instance);
+			roster.solve();
+			roster.setMinStaff(shift, instance.getNumResidents() + 1);
+			if (roster.solve() != null) {
+				throw new AssertionError("Shift " + shift + " staffed beyond the residents");
+			}
+			roster.setMinStaff(shift, instance.getMinStaffForShift()[shift]);
+			checkTwice(roster, expected, "Minimum staff of shift " + shift + " raised and lowered");
+		}
+		return numShifts;
+	}
+
+	/*
+	 *  Solves the roster, then once more with no change, and expects the total both times.
+	 */
+	private static void checkTwice(IncrementalRoster roster, int expected, String change) {
+		for (int solve = 1; solve <= 2; solve++) {
+			int actual = total(roster.solve());
+			if (actual != expected) {
+				throw new AssertionError(change + ": total " + actual + " at solve " + solve + ", from scratch " + expected);
+			}
+		}
+	}
+
+	private static int total(ResidentsSolution solution) {
+		return solution == null ? -1 : solution.getTotalNumberOfShifts();
+	}
+}
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ *  Pioneer model test
+ *  Solves instances the way Pioneer116365436, BatchSolver and SolverDaemon do (presolve, dynamic programming, then
+ *  the model warm started from its incumbent and bound) and compares the value with the best found by trying every
+ *  choice of experiments: on an instance where the knapsack constraint once pruned the optimum, and on small random
+ *  instances with types taking no time. Throws AssertionError on the first mismatch.
+ */
+
+public class PioneerModelTest {
+
+	public static void main(String[] args) {
+		check(new PioneerInstance(6, 9, new int[] { 2, 0, 5, 5, 0, 0 }, new int[] { 4, 9, 6, 10, 4, 10 },
+				new int[] { 3, 2, 3, 3, 1, 1 }, new int[][] { { 2, 1 }, { 1, 1 }, { 3, 4 }, { 5, 5 } }));
+		Random random = new Random(3);
+		for (int i = 0; i < 500; i++) {
+			int numTypes = 2 + random.nextInt(5);
+			int[] hours = new int[numTypes];
+			int[] values = new int[numTypes];
+			int[] totals = new int[numTypes];
+			for (int type = 0; type < numTypes; type++) {
+				hours[type] = random.nextInt(6);
+				values[type] = random.nextInt(11);
+				totals[type] = 1 + random.nextInt(3);
+			}
+			List<int[]> befores = new ArrayList<>();
+			for (int before = random.nextInt(5); before > 0; before--) {
+				befores.add(new int[] { random.nextInt(numTypes), random.nextInt(numTypes) });
+			}
+			check(new PioneerInstance(numTypes, 3 + random.nextInt(20), hours, values, totals, befores.toArray(new int[0][])));
+		}
+		System.out.println("PioneerModelTest: 501 instances ok");
+	}
+
+	private static void check(PioneerInstance original) {
+		PioneerPresolve presolve = PioneerPresolve.reduce(original);
+		PioneerInstance instance = presolve.getReduced();
+		PioneerSolution relaxed = PioneerKnapsackDP.solve(instance);
+		PioneerSolution best = PioneerKnapsackDP.repair(instance, relaxed.getExperiments());
+		if (best.getScientificValue() < relaxed.getScientificValue()) {
+			PioneerModel pioneerModel = PioneerModel.build(instance, SearchStrategy.DEFAULT);
+			pioneerModel.warmStart(best, relaxed.getScientificValue());
+			while (pioneerModel.getModel().getSolver().solve()) {
+				best = PioneerSolution.of(pioneerModel);
+			}
+		}
+		int expected = bruteForce(original);
+		int actual = presolve.mapBack(best).getScientificValue();
+		if (actual != expected) {
+			throw new AssertionError("Value " + actual + ", by brute force " + expected);
+		}
+	}
+
+	/*
+	 *  The highest value of any choice of experiments meeting the befores within the hours.
+	 */
+	private static int bruteForce(PioneerInstance instance) {
+		int numTypes = instance.getNumTypes();
+		int best = 0;
+		int[] experiments = new int[numTypes];
+		while (true) {
+			PioneerSolution choice = PioneerSolution.of(instance, experiments.clone());
+			boolean meetsBefores = true;
+			for (int[] before : instance.getBefores()) {
+				meetsBefores &= experiments[before[1]] <= experiments[before[0]];
+			}
+			if (meetsBefores && choice.getTotalTime() <= instance.getTotalHours()) {
+				best = Math.max(best, choice.getScientificValue());
+			}
+			int type = 0;
+			while (type < numTypes && ++experiments[type] > instance.getTotals()[type]) {
+				experiments[type++] = 0;
+			}
+			if (type == numTypes) {
+				return best;
+			}
+		}
+	}
+}
@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/*
+ *  Pioneer Pareto front test
+ *  Compares the front of PioneerPareto with the one found by trying every choice of experiments, on an instance
+ *  where a searched point used to be missed and on small random instances with and without befores. Each point
+ *  must also meet the befores and dominate the one before it. Throws AssertionError on the first mismatch.
+ */
+
+public class PioneerParetoTest {
+
+	public static void main(String[] args) {
+		check(new PioneerInstance(5, 23, new int[] { 4, 1, 4, 0, 2 }, new int[] { 9, 2, 12, 13, 2 },
+				new int[] { 1, 1, 2, 1, 2 }, new int[][] { { 4, 3 } }));
+		Random random = new Random(17);
+		for (int i = 0; i < 300; i++) {
+			int numTypes = 2 + random.nextInt(4);
+			int[] hours = new int[numTypes];
+			int[] values = new int[numTypes];
+			int[] totals = new int[numTypes];
+			for (int type = 0; type < numTypes; type++) {
+				hours[type] = random.nextInt(6);
+				values[type] = random.nextInt(10);
+				totals[type] = 1 + random.nextInt(3);
+			}
+			List<int[]> befores = new ArrayList<>();
+			for (int before = random.nextInt(5); before > 0; before--) {
+				befores.add(new int[] { random.nextInt(numTypes), random.nextInt(numTypes) });
+			}
+			check(new PioneerInstance(numTypes, 5 + random.nextInt(20), hours, values, totals, befores.toArray(new int[0][])));
+		}
+		System.out.println("PioneerParetoTest: 301 fronts ok");
+	}
+
+	private static void check(PioneerInstance instance) {
+		TreeMap<Integer, Integer> expected = bruteForce(instance);
+		TreeMap<Integer, Integer> actual = new TreeMap<>();
+		new PioneerPareto(instance).run(point -> {
+			if (!meetsBefores(instance, point.getExperiments())) {
+				throw new AssertionError("Point " + point.getTotalTime() + "/" + point.getScientificValue() + " breaks a before");
+			}
+			if (!actual.isEmpty() && (point.getTotalTime() <= actual.lastKey() || point.getScientificValue() <= actual.lastEntry().getValue())) {
+				throw new AssertionError("Point " + point.getTotalTime() + "/" + point.getScientificValue() + " out of order");
+			}
+			actual.put(point.getTotalTime(), point.getScientificValue());
+		});
+		if (!actual.equals(expected)) {
+			throw new AssertionError("Front " + actual + ", by brute force " + expected);
+		}
+	}
+
+	/*
+	 *  The front as totalTime -> scientificValue, from every choice of experiments within the hours.
+	 */
+	private static TreeMap<Integer, Integer> bruteForce(PioneerInstance instance) {
+		int numTypes = instance.getNumTypes();
+		TreeMap<Integer, Integer> bestAt = new TreeMap<>();
+		int[] experiments = new int[numTypes];
+		while (true) {
+			PioneerSolution choice = PioneerSolution.of(instance, experiments.clone());
+			if (meetsBefores(instance, experiments) && choice.getTotalTime() <= instance.getTotalHours()) {
+				bestAt.merge(choice.getTotalTime(), choice.getScientificValue(), Math::max);
+			}
+			int type = 0;
+			while (type < numTypes && ++experiments[type] > instance.getTotals()[type]) {
+				experiments[type++] = 0;
+			}
+			if (type == numTypes) {
+				break;
+			}
+		}
+		TreeMap<Integer, Integer> front = new TreeMap<>();
+		int best = -1;
+		for (int totalTime : bestAt.keySet()) {
+			if (bestAt.get(totalTime) > best) {
+				best = bestAt.get(totalTime);
+				front.put(totalTime, best);
+			}
+		}
+		return front;
+	}
+
+	private static boolean meetsBefores(PioneerInstance instance, int[] experiments) {
+		for (int[] before : instance.getBefores()) {
+			if (experiments[before[1]] > experiments[before[0]]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}